@@ -0,0 +1,125 @@
+package roo.clockanimation;
+
+import android.content.res.Resources;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A configuration change in the middle of a transition: the clock is saved, written to a parcel
+ * and restored into a new clock, which has to carry on from where the hands were instead of
+ * starting over or jumping to the target.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ClockDrawableStateTest {
+
+    private static final long FRAME_NANOS = 16666667;
+
+    private static final long JULY_15_2016 = ClockKinematics.epochMinute(2016, 7, 15, 0);
+
+    private static final TimeSource MIDNIGHT = new TimeSource() {
+        @Override public long currentLocalMillis() {
+            return JULY_15_2016 * 60000;
+        }
+    };
+
+    private ManualFrameClock frameClock;
+
+    @Before
+    public void setUp() throws Exception {
+        frameClock = new ManualFrameClock(1000000000L);
+    }
+
+    @Test
+    public void rotationMidTransition_restoredClockCarriesOn() throws Exception {
+        ClockDrawable clock = createClock();
+        clock.start(JULY_15_2016 + 60);
+        for (int i = 0; i < 10; i++) {
+            frameClock.step(FRAME_NANOS);
+        }
+        float hourRotation = clock.getHandRotation(ClockKinematics.HOUR_HAND);
+        float minRotation = clock.getHandRotation(ClockKinematics.MINUTE_HAND);
+
+        Parcelable state = parcel(clock.saveState());
+        clock.stop();
+        ClockDrawable restored = createClock();
+        restored.restoreState(state);
+
+        assertEquals(hourRotation, restored.getHandRotation(ClockKinematics.HOUR_HAND), 0f);
+        assertEquals(minRotation, restored.getHandRotation(ClockKinematics.MINUTE_HAND), 0f);
+        assertTrue(restored.isRunning());
+
+        // the first frame is play time 0 again, where the hands were saved
+        frameClock.step(FRAME_NANOS);
+        frameClock.step(FRAME_NANOS);
+        assertBetween(hourRotation, 30f, restored.getHandRotation(ClockKinematics.HOUR_HAND));
+        assertBetween(minRotation, 360f, restored.getHandRotation(ClockKinematics.MINUTE_HAND));
+
+        while (frameClock.step(FRAME_NANOS)) {
+        }
+        assertEquals(30f, restored.getHandRotation(ClockKinematics.HOUR_HAND), 0f);
+        assertEquals(0f, restored.getHandRotation(ClockKinematics.MINUTE_HAND), 0f);
+    }
+
+    @Test
+    public void hiddenMidTransition_pausesAcrossRestore() throws Exception {
+        ClockDrawable clock = createClock();
+        clock.start(JULY_15_2016 + 60);
+        for (int i = 0; i < 10; i++) {
+            frameClock.step(FRAME_NANOS);
+        }
+        float minRotation = clock.getHandRotation(ClockKinematics.MINUTE_HAND);
+
+        clock.setVisible(false, false);
+        assertFalse(clock.isRunning());
+        assertEquals(minRotation, clock.getHandRotation(ClockKinematics.MINUTE_HAND), 0f);
+
+        // restored before the view shows it, as in Activity.onCreate
+        ClockDrawable restored = createClock();
+        restored.setVisible(false, false);
+        restored.restoreState(parcel(clock.saveState()));
+        assertFalse(restored.isRunning());
+        assertEquals(minRotation, restored.getHandRotation(ClockKinematics.MINUTE_HAND), 0f);
+
+        restored.setVisible(true, false);
+        frameClock.step(FRAME_NANOS);
+        frameClock.step(FRAME_NANOS);
+        assertBetween(minRotation, 360f, restored.getHandRotation(ClockKinematics.MINUTE_HAND));
+
+        while (frameClock.step(FRAME_NANOS)) {
+        }
+        assertEquals(30f, restored.getHandRotation(ClockKinematics.HOUR_HAND), 0f);
+    }
+
+    private ClockDrawable createClock() {
+        Resources resources = InstrumentationRegistry.getTargetContext().getResources();
+        ClockDrawable clock = new ClockDrawable(resources, MIDNIGHT);
+        clock.setBounds(0, 0, 240, 240);
+        clock.setTicker(new ClockTicker(frameClock));
+        return clock;
+    }
+
+    private static Parcelable parcel(Parcelable state) {
+        Parcel parcel = Parcel.obtain();
+        try {
+            state.writeToParcel(parcel, 0);
+            parcel.setDataPosition(0);
+            return ClockDrawable.SavedState.CREATOR.createFromParcel(parcel);
+        } finally {
+            parcel.recycle();
+        }
+    }
+
+    private static void assertBetween(float from, float to, float actual) {
+        assertTrue(actual + " not in (" + from + ", " + to + ")", actual > from && actual < to);
+    }
+}
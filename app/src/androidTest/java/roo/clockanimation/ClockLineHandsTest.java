@@ -0,0 +1,87 @@
+package roo.clockanimation;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Line hands have to draw the same pixels as the stroked hand paths. On the hours where both
+ * hands are on an axis the angle table and the canvas rotation agree exactly; at other angles
+ * they differ by a tiny fraction of a pixel, which only shows in the anti-aliasing. A different
+ * cap would fill or clear whole corner pixels at the tips.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ClockLineHandsTest {
+
+    private static final int SIZE = 240;
+
+    private static final long JULY_15_2016 = ClockKinematics.epochMinute(2016, 7, 15, 0);
+
+    // per colour channel, out of 255
+    private static final int ANTI_ALIAS_TOLERANCE = 8;
+
+    @Test
+    public void lineHands_matchPathHandsPixelForPixel() throws Exception {
+        for (int hour = 0; hour < 12; hour += 3) {
+            long epochMinute = JULY_15_2016 + hour * 60;
+
+            Bitmap paths = draw(epochMinute, false);
+            Bitmap lines = draw(epochMinute, true);
+
+            assertTrue(hour + " o'clock", paths.sameAs(lines));
+        }
+    }
+
+    @Test
+    public void lineHands_matchPathHandsOffTheAxes() throws Exception {
+        int[] minutesOfDay = {1 * 60 + 10, 4 * 60 + 40, 7 * 60 + 25, 10 * 60 + 50, 11 * 60 + 59};
+        for (int minuteOfDay : minutesOfDay) {
+            long epochMinute = JULY_15_2016 + minuteOfDay;
+
+            Bitmap paths = draw(epochMinute, false);
+            Bitmap lines = draw(epochMinute, true);
+
+            assertTrue(minuteOfDay / 60 + ":" + minuteOfDay % 60, maxChannelDifference(paths, lines) <= ANTI_ALIAS_TOLERANCE);
+        }
+    }
+
+    private static int maxChannelDifference(Bitmap a, Bitmap b) {
+        int[] pixelsA = new int[SIZE * SIZE];
+        int[] pixelsB = new int[SIZE * SIZE];
+        a.getPixels(pixelsA, 0, SIZE, 0, 0, SIZE, SIZE);
+        b.getPixels(pixelsB, 0, SIZE, 0, 0, SIZE, SIZE);
+        int max = 0;
+        for (int i = 0; i < pixelsA.length; i++) {
+            for (int shift = 0; shift < 32; shift += 8) {
+                int difference = Math.abs((pixelsA[i] >>> shift & 0xff) - (pixelsB[i] >>> shift & 0xff));
+                max = Math.max(max, difference);
+            }
+        }
+        return max;
+    }
+
+    private static Bitmap draw(final long epochMinute, boolean lineHands) {
+        Resources resources = InstrumentationRegistry.getTargetContext().getResources();
+        ClockDrawable clock = new ClockDrawable(resources, new TimeSource() {
+            @Override public long currentLocalMillis() {
+                return epochMinute * 60000;
+            }
+        });
+        clock.setBounds(0, 0, SIZE, SIZE);
+        clock.setLineHands(lineHands);
+        // puts the hands on the time source's time without a transition
+        clock.setLive(true, false);
+        clock.setLive(false, false);
+
+        Bitmap bitmap = Bitmap.createBitmap(SIZE, SIZE, Bitmap.Config.ARGB_8888);
+        clock.draw(new Canvas(bitmap));
+        return bitmap;
+    }
+}
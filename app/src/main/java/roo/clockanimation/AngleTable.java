@@ -0,0 +1,40 @@
+package roo.clockanimation;
+
+/**
+ * Sine and cosine of angles in degrees from a table built once, linearly interpolated between
+ * tenths of a degree. Precise to well under a pixel for any clock that fits on a screen.
+ */
+public final class AngleTable {
+
+    private static final int STEPS_PER_DEGREE = 10;
+    private static final int SIZE = 360 * STEPS_PER_DEGREE;
+
+    // one extra entry so interpolation never wraps
+    private static final float[] SIN = new float[SIZE + 1];
+
+    static {
+        for (int i = 0; i <= SIZE; i++) {
+            SIN[i] = (float) Math.sin(Math.toRadians(i / (double) STEPS_PER_DEGREE));
+        }
+    }
+
+    private AngleTable() {
+    }
+
+    public static float sin(float degrees) {
+        float position = degrees % 360f * STEPS_PER_DEGREE;
+        if (position < 0) {
+            position += SIZE;
+        }
+        int index = (int) position;
+        if (index >= SIZE) {
+            return SIN[SIZE];
+        }
+        float fraction = position - index;
+        return SIN[index] + (SIN[index + 1] - SIN[index]) * fraction;
+    }
+
+    public static float cos(float degrees) {
+        return sin(degrees + 90f);
+    }
+}
@@ -0,0 +1,35 @@
+package roo.clockanimation;
+
+import android.view.Choreographer;
+
+/**
+ * Frame clock of the display, must be used from the main thread.
+ */
+public class ChoreographerFrameClock extends QueuedFrameClock implements Choreographer.FrameCallback {
+
+    private static ClockTicker sharedTicker;
+
+    private final Choreographer choreographer;
+
+    public ChoreographerFrameClock() {
+        choreographer = Choreographer.getInstance();
+    }
+
+    /**
+     * A ticker on the display's frames, for use from the main thread.
+     */
+    public static ClockTicker getSharedTicker() {
+        if (sharedTicker == null) {
+            sharedTicker = new ClockTicker(new ChoreographerFrameClock());
+        }
+        return sharedTicker;
+    }
+
+    @Override protected void scheduleFrame() {
+        choreographer.postFrameCallback(this);
+    }
+
+    @Override public void doFrame(long frameTimeNanos) {
+        dispatchFrame(frameTimeNanos);
+    }
+}
@@ -1,10 +1,10 @@
 package roo.clockanimation;
 
-import android.animation.Animator;
-import android.animation.AnimatorListenerAdapter;
-import android.animation.ValueAnimator;
-import android.animation.ValueAnimator.AnimatorUpdateListener;
+import android.animation.TimeAnimator;
+import android.animation.TimeAnimator.TimeListener;
 import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.Bitmap.Config;
 import android.graphics.Canvas;
 import android.graphics.ColorFilter;
 import android.graphics.Paint;
@@ -14,17 +14,20 @@ import android.graphics.PixelFormat;
 import android.graphics.Rect;
 import android.graphics.drawable.Animatable;
 import android.graphics.drawable.Drawable;
+import android.os.Build;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.os.SystemClock;
+import android.os.Trace;
 import android.support.annotation.ColorRes;
-import android.view.animation.AccelerateDecelerateInterpolator;
 
 import org.joda.time.LocalDateTime;
 
 import static android.graphics.Paint.ANTI_ALIAS_FLAG;
 import static android.graphics.Paint.Cap.ROUND;
+import static android.graphics.Paint.Cap.SQUARE;
 import static android.graphics.Paint.Style.FILL;
 import static android.graphics.Paint.Style.STROKE;
-import static android.util.Log.d;
-import static org.joda.time.Minutes.minutesBetween;
 
 /**
  * Created by evelina on 15/07/2016.
@@ -32,152 +35,309 @@ import static org.joda.time.Minutes.minutesBetween;
 
 public class ClockDrawable extends Drawable implements Animatable {
 
+    /**
+     * Implemented by hosts that can repaint part of the drawable. Rectangles are in the
+     * drawable's coordinates.
+     */
+    public interface PartialInvalidationCallback {
+        /**
+         * @return false if the host cannot invalidate a region right now and the whole drawable
+         * has to be invalidated instead
+         */
+        boolean invalidateDrawable(Drawable who, Rect dirty);
+    }
+
     private final static int ANIMATION_DURATION = 500;
 
+    private static final long FRAME_MILLIS = 16;
+
+    /**
+     * Default for {@link #setMinTipTravel(float)}, in pixels.
+     */
+    public static final float DEFAULT_MIN_TIP_TRAVEL = 0.5f;
+
     private static final @ColorRes int FACE_COLOR = android.R.color.white;
     private static final @ColorRes int RIM_COLOR = R.color.colorAccent;
 
-    private final Paint facePaint;
-    private final Paint rimPaint;
-    private final ValueAnimator minAnimator;
-    private final ValueAnimator hourAnimator;
+    private ClockState state;
+    private boolean mutated;
+    private TimeAnimator animator;
 
-    private float rimRadius;
-    private float faceRadius;
-    private float screwRadius;
+    private final ClockPainter painter = new ClockPainter();
+    private final CanvasSurface surface;
 
-    private final Path hourHandPath;
-    private final Path minuteHandPath;
+    private final ClockKinematics kinematics;
 
-    private float remainingHourRotation = 0f;
-    private float remainingMinRotation = 0f;
+    private ClockFaceCache faceCache;
+    private Bitmap faceBitmap;
 
-    private float targetHourRotation = 0f;
-    private float targetMinRotation = 0f;
+    private ClockTicker ticker;
+    private boolean ticking;
+    private final ClockTicker.Client tickerClient = new ClockTicker.Client() {
+        @Override protected boolean onFrame(long playTime) {
+            ticking = updateFrame(playTime);
+            return ticking;
+        }
+    };
+
+    private boolean lineHands;
 
-    private float currentHourRotation = 0f;
-    private float currentMinRotation;
+    // moves the hands on every frame and decides which frames are redrawn
+    private final ClockFrameStepper frames;
 
-    private boolean hourAnimInterrupted;
-    private boolean minAnimInterrupted;
+    // a transition or timeline put off while hidden, started again by setVisible(true)
+    private boolean resumeOnVisible;
+    // the time changed while hidden, played as a catch-up transition instead of resumed
+    private boolean catchUpOnVisible;
+    private long catchUpDuration;
 
-    private LocalDateTime previousTime;
+    private boolean live;
+    private boolean secondHand;
+    private float secondRotation;
+    private final Runnable liveTick = new Runnable() {
+        @Override public void run() {
+            tickLive();
+        }
+    };
 
-    private boolean animateDays = true;
+    // per hand, in the order of the kinematics; a null paint draws with the rim paint
+    private Paint[] handPaints = new Paint[2];
+    private float drawnSecondRotation;
+    private final Rect dirtyRect = new Rect();
+
+    private ClockMetricsListener metricsListener;
+    private boolean traceEnabled;
+    private long lastUpdateNanos = -1;
+    private long lastPlayTime;
+    private int transitionFrames;
+    private int transitionDroppedFrames;
+    private int transitionInvalidations;
 
     public ClockDrawable(Resources resources) {
-        facePaint = new Paint(ANTI_ALIAS_FLAG);
-        facePaint.setColor(resources.getColor(FACE_COLOR));
-        facePaint.setStyle(FILL);
-
-        rimPaint = new Paint(ANTI_ALIAS_FLAG);
-        rimPaint.setColor(resources.getColor(RIM_COLOR));
-        rimPaint.setStyle(STROKE);
-        rimPaint.setStrokeCap(ROUND);
-        rimPaint.setStrokeWidth(resources.getDimension(R.dimen.clock_stroke_width));
-
-        hourHandPath = new Path();
-        minuteHandPath = new Path();
-
-        hourAnimator = ValueAnimator.ofFloat(0, 0);
-        hourAnimator.setInterpolator(new AccelerateDecelerateInterpolator());
-        hourAnimator.setDuration(ANIMATION_DURATION);
-        hourAnimator.addUpdateListener(new AnimatorUpdateListener() {
-            @Override public void onAnimationUpdate(ValueAnimator valueAnimator) {
-                float fraction = (float) valueAnimator.getAnimatedValue();
-                //d("ANIM", "Hfraction = " + fraction + ", remaining hour rotation = " + remainingHourRotation);
-                remainingHourRotation = targetHourRotation - fraction;
-                currentHourRotation = fraction;
-                invalidateSelf();
-            }
-        });
-        hourAnimator.addListener(new AnimatorListenerAdapter() {
-            @Override public void onAnimationEnd(Animator animation) {
-                if (!hourAnimInterrupted) {
-                    remainingHourRotation = 0f;
-                }
-                //i("ANIM", "END! remaining hour rotation = " + remainingHourRotation);
-            }
-        });
+        this(resources, TimeSource.SYSTEM);
+    }
 
+    /**
+     * @param timeSource gives the day the hands start on, at midnight, and the time in live mode
+     */
+    public ClockDrawable(Resources resources, TimeSource timeSource) {
+        this(new ClockState(resources, timeSource));
+    }
 
-        minAnimator = ValueAnimator.ofFloat(0, 0);
-        minAnimator.setInterpolator(new AccelerateDecelerateInterpolator());
-        minAnimator.setDuration(ANIMATION_DURATION);
-        minAnimator.addUpdateListener(new AnimatorUpdateListener() {
-            @Override public void onAnimationUpdate(ValueAnimator valueAnimator) {
-                float fraction = (float) valueAnimator.getAnimatedValue();
-                //d("ANIM", "Mfraction = " + fraction + ", remaining minute rotation = " + remainingMinRotation);
-                remainingMinRotation = targetMinRotation - fraction;
-                currentMinRotation = fraction;
-                invalidateSelf();
+    /**
+     * Shares the paints and the hand geometry of {@code state}, only the hand angles and the
+     * animation are this clock's own.
+     */
+    private ClockDrawable(ClockState state) {
+        this.state = state;
+        frames = new ClockFrameStepper(state.timeSource, painter) {
+            @Override protected void invalidateHands() {
+                ClockDrawable.this.invalidateHands();
             }
-        });
-        minAnimator.addListener(new AnimatorListenerAdapter() {
-            @Override public void onAnimationEnd(Animator animation) {
-                if (!minAnimInterrupted) {
-                    remainingMinRotation = 0f;
-                }
-                //i("ANIM", "END! remaining minute rotation = " + remainingMinRotation);
-            }
-        });
-
-        previousTime = LocalDateTime.now().withTime(0, 0, 0, 0);
+        };
+        frames.setMinTipTravel(DEFAULT_MIN_TIP_TRAVEL);
+        kinematics = frames.getKinematics();
+        // one frame callback moves both hands, the kinematics own the timing and the interpolation
+        kinematics.setDuration(ANIMATION_DURATION);
+        surface = new CanvasSurface(this);
     }
 
     @Override
     protected void onBoundsChange(Rect bounds) {
         super.onBoundsChange(bounds);
 
-        rimRadius = Math.min(bounds.width(), bounds.height()) / 2f - rimPaint.getStrokeWidth();
-        faceRadius = rimRadius - rimPaint.getStrokeWidth();
-        screwRadius = rimPaint.getStrokeWidth() * 2;
-        float hourHandLength = (float) (0.5 * faceRadius);
-        float minuteHandLength = (float) (0.7 * faceRadius);
-        float top = bounds.centerY() - screwRadius;
+        painter.setSize(bounds.width(), bounds.height(), state.rimPaint.getStrokeWidth());
+        faceBitmap = null;
+    }
 
-        hourHandPath.reset();
-        hourHandPath.moveTo(bounds.centerX(), bounds.centerY());
-        hourHandPath.addRect(bounds.centerX(), top, bounds.centerX(), top - hourHandLength, Direction.CCW);
-        hourHandPath.close();
+    @Override public ConstantState getConstantState() {
+        state.changingConfigurations = getChangingConfigurations();
+        return state;
+    }
 
-        minuteHandPath.reset();
-        minuteHandPath.moveTo(bounds.centerX(), bounds.centerY());
-        minuteHandPath.addRect(bounds.centerX(), top, bounds.centerX(), top - minuteHandLength, Direction.CCW);
-        minuteHandPath.close();
+    /**
+     * Gives this clock its own copy of the paints, so changing its alpha or colour filter does not
+     * change the clocks it shares them with.
+     */
+    @Override public Drawable mutate() {
+        if (!mutated && super.mutate() == this) {
+            state = new ClockState(state);
+            mutated = true;
+        }
+        return this;
     }
 
     @Override public void draw(Canvas canvas) {
+        StartupTrace.clockDrawn();
+        if (metricsListener == null && !traceEnabled) {
+            drawClock(canvas);
+            return;
+        }
+
+        if (traceEnabled) {
+            beginTrace("ClockDrawable.draw");
+        }
+        long drawStart = System.nanoTime();
+        drawClock(canvas);
+        long drawEnd = System.nanoTime();
+        if (traceEnabled) {
+            endTrace();
+        }
+
+        if (metricsListener != null) {
+            long updateToDraw = lastUpdateNanos < 0 ? -1 : drawEnd - lastUpdateNanos;
+            lastUpdateNanos = -1;
+            metricsListener.onDraw(this, drawEnd - drawStart, updateToDraw);
+        }
+    }
+
+    private void drawClock(Canvas canvas) {
         Rect bounds = getBounds();
 
-        // draw the outer rim of the clock
-        canvas.drawCircle(bounds.centerX(), bounds.centerY(), rimRadius, rimPaint);
-        // draw the face of the clock
-        canvas.drawCircle(bounds.centerX(), bounds.centerY(), faceRadius, facePaint);
-        // draw the little rim in the middle of the clock
-        canvas.drawCircle(bounds.centerX(), bounds.centerY(), screwRadius, rimPaint);
+        if (faceCache != null && !bounds.isEmpty()) {
+            canvas.drawBitmap(getFaceBitmap(), bounds.left, bounds.top, null);
+        } else {
+            drawFace(canvas, bounds.centerX(), bounds.centerY());
+        }
 
-        int saveCount = canvas.save();
-        canvas.rotate(currentHourRotation, bounds.centerX(), bounds.centerY());
-        // draw hour hand
-        canvas.drawPath(hourHandPath, rimPaint);
-        canvas.restoreToCount(saveCount);
+        int handCount = kinematics.getHandCount();
+        frames.markDrawn();
+
+        // the hour and minute hands are stroked paths unless line hands are asked for, any
+        // other hand is always a line
+        int firstLineHand = 0;
+        if (!lineHands) {
+            state.updateHandPaths(painter);
+
+            int saveCount = canvas.save();
+            canvas.translate(bounds.centerX(), bounds.centerY());
+            canvas.rotate(frames.getDrawnRotation(ClockKinematics.HOUR_HAND));
+            // draw hour hand
+            canvas.drawPath(state.hourHandPath, getHandPaint(ClockKinematics.HOUR_HAND));
+            canvas.restoreToCount(saveCount);
+
+            saveCount = canvas.save();
+            canvas.translate(bounds.centerX(), bounds.centerY());
+            canvas.rotate(frames.getDrawnRotation(ClockKinematics.MINUTE_HAND));
+            // draw minute hand
+            canvas.drawPath(state.minuteHandPath, getHandPaint(ClockKinematics.MINUTE_HAND));
+            canvas.restoreToCount(saveCount);
+
+            firstLineHand = 2;
+        }
 
-        saveCount = canvas.save();
-        canvas.rotate(currentMinRotation, bounds.centerX(), bounds.centerY());
-        // draw minute hand
-        canvas.drawPath(minuteHandPath, rimPaint);
-        canvas.restoreToCount(saveCount);
+        surface.canvas = canvas;
+        for (int i = firstLineHand; i < handCount; i++) {
+            surface.linePaint = handPaints[i];
+            painter.drawHand(surface, bounds.centerX(), bounds.centerY(), i, frames.getDrawnRotation(i));
+        }
+        surface.linePaint = null;
+        if (secondHand) {
+            drawnSecondRotation = secondRotation;
+            painter.drawSecondHand(surface, bounds.centerX(), bounds.centerY(), drawnSecondRotation);
+        }
+        surface.canvas = null;
+    }
+
+    private float getWidestHandStroke() {
+        float width = state.rimPaint.getStrokeWidth();
+        for (int i = 0, handCount = kinematics.getHandCount(); i < handCount; i++) {
+            if (handPaints[i] != null) {
+                width = Math.max(width, handPaints[i].getStrokeWidth());
+            }
+        }
+        return width;
+    }
+
+    private Paint getHandPaint(int hand) {
+        return handPaints[hand] != null ? handPaints[hand] : state.rimPaint;
+    }
+
+    /**
+     * Invalidates only the area covered by the hands where they were last drawn and where they
+     * are now, if the host supports it.
+     */
+    private void invalidateHands() {
+        if (metricsListener != null) {
+            transitionInvalidations++;
+        }
+        Callback callback = getCallback();
+        if (!(callback instanceof PartialInvalidationCallback)) {
+            invalidateSelf();
+            return;
+        }
+
+        Rect bounds = getBounds();
+        dirtyRect.set(bounds.centerX(), bounds.centerY(), bounds.centerX(), bounds.centerY());
+        for (int i = 0, handCount = kinematics.getHandCount(); i < handCount; i++) {
+            unionHandTip(frames.getDrawnRotation(i), painter.getHandLength(i));
+            unionHandTip(kinematics.getCurrentRotation(i), painter.getHandLength(i));
+        }
+        if (secondHand) {
+            unionHandTip(drawnSecondRotation, painter.getSecondHandLength());
+            unionHandTip(secondRotation, painter.getSecondHandLength());
+        }
+        // caps reach half a stroke past the end points, the corners of a square cap on a diagonal
+        // up to half the diagonal, and anti-aliasing a pixel more
+        int inset = (int) Math.ceil(getWidestHandStroke() * 0.71f) + 1;
+        dirtyRect.inset(-inset, -inset);
+
+        if (!((PartialInvalidationCallback) callback).invalidateDrawable(this, dirtyRect)) {
+            invalidateSelf();
+        }
+    }
+
+    private void unionHandTip(float rotation, float handLength) {
+        Rect bounds = getBounds();
+        float radius = painter.getScrewRadius() + handLength;
+        float x = bounds.centerX() + radius * AngleTable.sin(rotation);
+        float y = bounds.centerY() - radius * AngleTable.cos(rotation);
+        dirtyRect.union((int) Math.floor(x), (int) Math.floor(y));
+        dirtyRect.union((int) Math.ceil(x), (int) Math.ceil(y));
+    }
+
+    private void drawFace(Canvas canvas, float centerX, float centerY) {
+        surface.canvas = canvas;
+        painter.drawFace(surface, centerX, centerY);
+        surface.canvas = null;
+    }
+
+    private Bitmap getFaceBitmap() {
+        if (faceBitmap == null) {
+            Rect bounds = getBounds();
+            ClockFaceCache.Key key = new ClockFaceCache.Key(bounds.width(), bounds.height(), state.rimPaint, state.facePaint);
+            faceBitmap = faceCache.get(key);
+            if (faceBitmap == null) {
+                faceBitmap = Bitmap.createBitmap(bounds.width(), bounds.height(), Config.ARGB_8888);
+                drawFace(new Canvas(faceBitmap), bounds.width() / 2, bounds.height() / 2);
+                faceCache.put(key, faceBitmap);
+            }
+        }
+        return faceBitmap;
+    }
+
+    /**
+     * Renders the static part of the clock once into a bitmap taken from {@code faceCache}, so
+     * only the hands are drawn on every frame. Pass null to draw the face directly again.
+     */
+    public void setFaceCache(ClockFaceCache faceCache) {
+        this.faceCache = faceCache;
+        faceBitmap = null;
+        invalidateSelf();
     }
 
     @Override public void setAlpha(int alpha) {
-        rimPaint.setAlpha(alpha);
-        facePaint.setAlpha(alpha);
+        state.rimPaint.setAlpha(alpha);
+        state.handLinePaint.setAlpha(alpha);
+        state.facePaint.setAlpha(alpha);
+        faceBitmap = null;
         invalidateSelf();
     }
 
     @Override public void setColorFilter(ColorFilter colorFilter) {
-        rimPaint.setColorFilter(colorFilter);
+        state.rimPaint.setColorFilter(colorFilter);
+        state.handLinePaint.setColorFilter(colorFilter);
+        faceBitmap = null;
         invalidateSelf();
     }
 
@@ -185,61 +345,625 @@ public class ClockDrawable extends Drawable implements Animatable {
         return PixelFormat.OPAQUE;
     }
 
+    @Override public boolean setVisible(boolean visible, boolean restart) {
+        boolean changed = super.setVisible(visible, restart);
+        if (live) {
+            // nothing ticks while hidden, on resume the hands jump to the current time
+            unscheduleSelf(liveTick);
+            if (visible) {
+                tickLive();
+            }
+        }
+        if (changed) {
+            if (visible) {
+                resumeTransition();
+            } else if (isRunning()) {
+                // no frames while hidden, paused where it was; the spring carries on from its velocity
+                if (frames.getTimeline() != null || !kinematics.isSpring()) {
+                    frames.setPlayTimeOffset(frames.getFramePlayTime());
+                }
+                stop();
+                resumeOnVisible = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * How long the transition played when the drawable becomes visible again takes, if the time
+     * changed while it was hidden. The default of 0 shows the final state straight away.
+     */
+    public void setCatchUpDuration(long millis) {
+        catchUpDuration = millis;
+    }
+
+    /**
+     * Called instead of starting a transition while hidden. A timeline is kept to be resumed, a
+     * new time is caught up with on resume, or without a catch-up transition the hands are put on
+     * their targets directly.
+     */
+    private void deferTransition() {
+        if (frames.getTimeline() != null) {
+            resumeOnVisible = true;
+        } else if (catchUpDuration > 0) {
+            resumeOnVisible = true;
+            catchUpOnVisible = true;
+        } else {
+            resumeOnVisible = false;
+            catchUpOnVisible = false;
+            kinematics.finish();
+            invalidateSelf();
+        }
+    }
+
+    private void resumeTransition() {
+        if (!resumeOnVisible) {
+            return;
+        }
+        resumeOnVisible = false;
+        if (catchUpOnVisible) {
+            catchUpOnVisible = false;
+            // from the angles the hands were left on, with everything that came in while hidden
+            frames.startTransition(kinematics.getPreviousMinute(), catchUpDuration);
+        }
+        start();
+    }
+
+    /**
+     * Follows the time of the {@link TimeSource} instead of animating to the times passed to
+     * {@link #start(long)}. The hands are redrawn once exactly on every minute boundary, or every
+     * second boundary with {@code secondHand}, with no frames or work in between. Nothing is
+     * scheduled while the drawable is not visible. Starting a transition to a given time leaves
+     * live mode.
+     */
+    public void setLive(boolean live, boolean secondHand) {
+        stop();
+        resumeOnVisible = false;
+        catchUpOnVisible = false;
+        unscheduleSelf(liveTick);
+        this.live = live;
+        this.secondHand = live && secondHand;
+        frames.setTimeline(null);
+        if (live && isVisible()) {
+            tickLive();
+        } else {
+            invalidateSelf();
+        }
+    }
+
+    public boolean isLive() {
+        return live;
+    }
+
+    private void tickLive() {
+        long localMillis = state.timeSource.currentLocalMillis();
+        long epochMinute = ClockKinematics.epochMinuteAt(localMillis);
+        if (epochMinute != kinematics.getPreviousMinute()) {
+            kinematics.reset(epochMinute);
+        }
+        if (secondHand) {
+            secondRotation = ClockKinematics.secondRotation(localMillis);
+        }
+        invalidateHands();
+
+        long period = secondHand ? 1000 : 60000;
+        scheduleSelf(liveTick, SystemClock.uptimeMillis() + ClockKinematics.millisUntilNext(localMillis, period));
+    }
+
+    /**
+     * Adds a hand to this clock, e.g. a 24 hour or a day of the week hand. It moves in the same
+     * loop as the hour and minute hands, so more hands need no more animators or listeners.
+     *
+     * @param degreesPerMinute see {@link ClockKinematics#addHand(double, double)}
+     * @param offsetDegrees    see {@link ClockKinematics#addHand(double, double)}
+     * @param lengthRatio      length as a fraction of the face radius
+     * @param paint            stroke of the hand, or null for the rim paint
+     * @return index of the hand
+     */
+    public int addHand(double degreesPerMinute, double offsetDegrees, float lengthRatio, Paint paint) {
+        stop();
+        int hand = frames.addHand(degreesPerMinute, offsetDegrees, lengthRatio);
+        if (hand == handPaints.length) {
+            Paint[] paints = new Paint[hand * 2];
+            System.arraycopy(handPaints, 0, paints, 0, hand);
+            handPaints = paints;
+        }
+        handPaints[hand] = paint;
+        Rect bounds = getBounds();
+        painter.setSize(bounds.width(), bounds.height(), state.rimPaint.getStrokeWidth());
+        invalidateSelf();
+        return hand;
+    }
+
+    /**
+     * The angle {@code hand} is at right now, in degrees clockwise from 12 o'clock, see
+     * {@link #addHand(double, double, float, Paint)} for the index.
+     */
+    public float getHandRotation(int hand) {
+        return kinematics.getCurrentRotation(hand);
+    }
+
+    /**
+     * Skips the redraw of a transition frame in which no hand tip moved at least {@code pixels}
+     * from where it was last drawn, e.g. at the slow ends of the transition or for the hour hand
+     * of a small clock. The skipped movement is drawn with the next frame that moves enough. Pass
+     * 0 to redraw every frame.
+     */
+    public void setMinTipTravel(float pixels) {
+        frames.setMinTipTravel(pixels);
+    }
+
+    /**
+     * Transition frames that were not redrawn since the clock was created, see
+     * {@link #setMinTipTravel(float)}.
+     */
+    public int getSkippedFrameCount() {
+        return frames.getSkippedFrameCount();
+    }
+
+    /**
+     * Draws each hand as a single line from the angle table through {@link ClockPainter},
+     * without a canvas rotation or stroking a path.
+     */
+    public void setLineHands(boolean lineHands) {
+        this.lineHands = lineHands;
+        invalidateSelf();
+    }
+
+    /**
+     * Lets a shared {@link ClockTicker} drive the transitions instead of this drawable's own
+     * animator. Pass null to go back to the own animator.
+     */
+    public void setTicker(ClockTicker ticker) {
+        stop();
+        this.ticker = ticker;
+    }
+
+    /**
+     * With spring motion a new time retargets a transition in flight and keeps the hands'
+     * velocity, instead of cancelling it and starting again from rest.
+     */
+    public void setSpringMotion(boolean springMotion) {
+        stop();
+        kinematics.setSpring(springMotion);
+    }
+
+    /**
+     * Reports draw times and per transition frame counts, see {@link ClockMetricsListener}.
+     * Pass null to stop measuring.
+     */
+    public void setMetricsListener(ClockMetricsListener metricsListener) {
+        this.metricsListener = metricsListener;
+        lastUpdateNanos = -1;
+    }
+
+    /**
+     * Wraps draws and hand updates in systrace sections (API 18 and up).
+     */
+    public void setTraceEnabled(boolean traceEnabled) {
+        this.traceEnabled = traceEnabled && Build.VERSION.SDK_INT >= 18;
+    }
+
     @Override public void start() {
-        hourAnimInterrupted = false;
-        minAnimInterrupted = false;
-        hourAnimator.start();
-        minAnimator.start();
+        if (!isVisible()) {
+            // a paused transition stays paused
+            if (!resumeOnVisible) {
+                deferTransition();
+            }
+            return;
+        }
+        transitionFrames = 0;
+        transitionDroppedFrames = 0;
+        transitionInvalidations = 0;
+        kinematics.begin();
+        if (ticker != null) {
+            ticking = true;
+            ticker.start(tickerClient);
+        } else {
+            if (animator == null) {
+                animator = createAnimator();
+            }
+            animator.start();
+        }
+    }
+
+    /**
+     * The own animator is only created once a clock without a ticker first animates, so clocks
+     * that never do, or share a ticker, don't carry one.
+     */
+    private TimeAnimator createAnimator() {
+        TimeAnimator animator = new TimeAnimator();
+        animator.setTimeListener(new TimeListener() {
+            @Override public void onTimeUpdate(TimeAnimator animation, long totalTime, long deltaTime) {
+                if (!updateFrame(totalTime)) {
+                    animation.end();
+                }
+            }
+        });
+        return animator;
+    }
+
+    private boolean updateFrame(long playTime) {
+        if (traceEnabled) {
+            beginTrace("ClockDrawable.updateFrame");
+        }
+        boolean running = frames.onFrame(playTime);
+        if (metricsListener != null) {
+            countFrame(playTime);
+        }
+        if (traceEnabled) {
+            endTrace();
+        }
+        if (!running && metricsListener != null) {
+            metricsListener.onTransitionEnd(this, transitionFrames, transitionDroppedFrames, transitionInvalidations, false);
+        }
+        return running;
+    }
+
+    private void countFrame(long playTime) {
+        if (transitionFrames > 0) {
+            long missed = (playTime - lastPlayTime + FRAME_MILLIS / 2) / FRAME_MILLIS - 1;
+            if (missed > 0) {
+                transitionDroppedFrames += missed;
+            }
+        }
+        transitionFrames++;
+        lastPlayTime = playTime;
+        lastUpdateNanos = System.nanoTime();
+    }
+
+    private static void beginTrace(String section) {
+        if (Build.VERSION.SDK_INT >= 18) {
+            Trace.beginSection(section);
+        }
+    }
+
+    private static void endTrace() {
+        if (Build.VERSION.SDK_INT >= 18) {
+            Trace.endSection();
+        }
     }
 
     public void setAnimateDays(boolean animateDays) {
-        this.animateDays = animateDays;
+        kinematics.setAnimateDays(animateDays);
     }
 
-    public void start(LocalDateTime newTime) {
-        int minDiff = getMinsBetween(previousTime, newTime);
-        // 60min ... 360grade
-        // minDif .. minDelta
-        float minDeltaRotation = ((float) minDiff * 360f) / 60f;
-        // 720min ... 360grade = 12h ... 360grade
-        // minDif ... hourDelta
-        float hourDeltaRotation = ((float) minDiff * 360f) / 720f;
+    /**
+     * @see ClockKinematics#setRevolutionPolicy(ClockKinematics.RevolutionPolicy)
+     */
+    public void setRevolutionPolicy(ClockKinematics.RevolutionPolicy revolutionPolicy) {
+        kinematics.setRevolutionPolicy(revolutionPolicy);
+    }
 
-        remainingMinRotation += minDeltaRotation;
-        remainingHourRotation += hourDeltaRotation;
+    /**
+     * Builds a timeline of steps starting from the time the clock is on now, with this clock's
+     * day and revolution settings. Play it with {@link #play(ClockTimeline)}.
+     *
+     * @param epochMinutes times the steps end on
+     * @param durations millis each step takes
+     */
+    public ClockTimeline createTimeline(long[] epochMinutes, long[] durations) {
+        return new ClockTimeline(kinematics, epochMinutes, durations);
+    }
 
-        d("ANIM", "current hour rotation = " + currentHourRotation + ", current min rotation = " + currentMinRotation);
+    /**
+     * Plays a precomputed timeline from its start. The hands follow it until it ends, or until
+     * stopped if it loops. {@link #start()} plays it again, starting a transition to a time with
+     * {@link #start(long)} leaves it.
+     */
+    public void play(ClockTimeline timeline) {
+        leaveLive();
+        stop();
+        resumeOnVisible = false;
+        catchUpOnVisible = false;
+        frames.setTimeline(timeline);
+        frames.setPlayTimeOffset(0);
+        start();
+    }
 
+    /**
+     * Moves the timeline being played to {@code playTime} millis from its start, carrying on
+     * from there if it is running.
+     */
+    public void seek(long playTime) {
+        ClockTimeline timeline = frames.getTimeline();
+        if (timeline == null) {
+            return;
+        }
+        frames.setPlayTimeOffset(playTime);
         if (isRunning()) {
             stop();
+            start();
+        } else {
+            timeline.seek(playTime);
+            kinematics.follow(timeline);
+            invalidateHands();
         }
+    }
 
-        targetHourRotation = currentHourRotation + remainingHourRotation;
-        hourAnimator.setFloatValues(currentHourRotation, targetHourRotation);
+    public void start(LocalDateTime newTime) {
+        start(toEpochMinute(newTime));
+    }
 
-        targetMinRotation = currentMinRotation + remainingMinRotation;
-        minAnimator.setFloatValues(currentMinRotation, targetMinRotation);
+    /**
+     * Same as {@link #start(LocalDateTime)} for a time given as epoch minutes (minutes since
+     * 1970-01-01T00:00 local time), without touching Joda at all.
+     */
+    public void start(long epochMinute) {
+        leaveLive();
+        if (frames.getTimeline() != null) {
+            stop();
+            frames.setTimeline(null);
+        }
+        if (isRunning()) {
+            if (kinematics.isSpring()) {
+                kinematics.retarget(epochMinute);
+                return;
+            }
+            stop();
+        }
 
+        // replaces whatever was put off while hidden
+        resumeOnVisible = false;
+        catchUpOnVisible = false;
+        frames.startTransition(epochMinute, ANIMATION_DURATION);
         start();
+    }
 
-        previousTime = newTime;
+    private void leaveLive() {
+        if (live) {
+            live = false;
+            secondHand = false;
+            unscheduleSelf(liveTick);
+            invalidateSelf();
+        }
     }
 
     @Override public void stop() {
-        hourAnimInterrupted = true;
-        minAnimInterrupted = true;
-        hourAnimator.cancel();
-        minAnimator.cancel();
+        if (metricsListener != null && isRunning()) {
+            metricsListener.onTransitionEnd(this, transitionFrames, transitionDroppedFrames, transitionInvalidations, true);
+        }
+        if (animator != null) {
+            animator.cancel();
+        }
+        if (ticking) {
+            ticking = false;
+            ticker.unregister(tickerClient);
+        }
     }
 
     @Override public boolean isRunning() {
-        return hourAnimator.isRunning() || minAnimator.isRunning();
+        return ticking || (animator != null && animator.isRunning());
+    }
+
+    /**
+     * Captures the hands, the time they are on or heading to and how far a transition has got,
+     * e.g. for {@code Activity.onSaveInstanceState}. A timeline being played is not kept.
+     */
+    public Parcelable saveState() {
+        SavedState saved = new SavedState();
+        saved.previousMinute = kinematics.getPreviousMinute();
+        saved.rotations = new double[kinematics.getSavedLength()];
+        kinematics.save(saved.rotations);
+        saved.running = isRunning() && frames.getTimeline() == null;
+        saved.pending = resumeOnVisible && frames.getTimeline() == null;
+        saved.catchUp = catchUpOnVisible;
+        // a paused transition keeps the play time of its last frame
+        saved.playTime = catchUpOnVisible ? 0 : frames.getFramePlayTime();
+        saved.catchUpDuration = catchUpDuration;
+        saved.spring = kinematics.isSpring();
+        saved.animateDays = kinematics.isAnimateDays();
+        saved.live = live;
+        saved.secondHand = secondHand;
+        return saved;
+    }
+
+    /**
+     * Puts the hands back where {@link #saveState()} left them and resumes a transition that was
+     * in flight from the same point, instead of starting over from midnight.
+     */
+    public void restoreState(Parcelable state) {
+        SavedState saved = (SavedState) state;
+        stop();
+        frames.setTimeline(null);
+        resumeOnVisible = false;
+        catchUpOnVisible = false;
+        catchUpDuration = saved.catchUpDuration;
+        kinematics.setDuration(ANIMATION_DURATION);
+        kinematics.setAnimateDays(saved.animateDays);
+        kinematics.setSpring(saved.spring);
+        kinematics.restore(saved.previousMinute, saved.rotations);
+        if (saved.live) {
+            setLive(true, saved.secondHand);
+            return;
+        }
+        setLive(false, false);
+        if (saved.running || saved.pending) {
+            // the spring carries on from its velocity, the tween from its play time, as soon as
+            // this clock is visible
+            frames.setPlayTimeOffset(saved.spring ? 0 : saved.playTime);
+            resumeOnVisible = true;
+            catchUpOnVisible = saved.catchUp;
+            if (isVisible()) {
+                resumeTransition();
+            }
+        }
+    }
+
+    private static long toEpochMinute(LocalDateTime time) {
+        return ClockKinematics.epochMinute(time.getYear(), time.getMonthOfYear(), time.getDayOfMonth(),
+                time.getMillisOfDay() / 60000);
+    }
+
+    static final class SavedState implements Parcelable {
+        long previousMinute;
+        double[] rotations;
+        long playTime;
+        long catchUpDuration;
+        boolean running;
+        boolean pending;
+        boolean catchUp;
+        boolean spring;
+        boolean animateDays;
+        boolean live;
+        boolean secondHand;
+
+        SavedState() {
+        }
+
+        SavedState(Parcel in) {
+            previousMinute = in.readLong();
+            rotations = in.createDoubleArray();
+            playTime = in.readLong();
+            catchUpDuration = in.readLong();
+            int flags = in.readInt();
+            running = (flags & 1) != 0;
+            spring = (flags & 2) != 0;
+            animateDays = (flags & 4) != 0;
+            live = (flags & 8) != 0;
+            secondHand = (flags & 16) != 0;
+            pending = (flags & 32) != 0;
+            catchUp = (flags & 64) != 0;
+        }
+
+        @Override public void writeToParcel(Parcel out, int parcelableFlags) {
+            out.writeLong(previousMinute);
+            out.writeDoubleArray(rotations);
+            out.writeLong(playTime);
+            out.writeLong(catchUpDuration);
+            out.writeInt((running ? 1 : 0) | (spring ? 2 : 0) | (animateDays ? 4 : 0)
+                    | (live ? 8 : 0) | (secondHand ? 16 : 0) | (pending ? 32 : 0)
+                    | (catchUp ? 64 : 0));
+        }
+
+        @Override public int describeContents() {
+            return 0;
+        }
+
+        public static final Creator<SavedState> CREATOR = new Creator<SavedState>() {
+            @Override public SavedState createFromParcel(Parcel in) {
+                return new SavedState(in);
+            }
+
+            @Override public SavedState[] newArray(int size) {
+                return new SavedState[size];
+            }
+        };
     }
 
-    private int getMinsBetween(LocalDateTime t1, LocalDateTime t2) {
-        if(animateDays) {
-            return minutesBetween(t1, t2).getMinutes();
+    /**
+     * What clones of a clock share: the paints, resolved from resources once, and the hand paths
+     * for the last size drawn. Clocks in a list are all the same size, so they build the paths
+     * once between them.
+     */
+    static final class ClockState extends ConstantState {
+        final Paint facePaint;
+        final Paint rimPaint;
+        // the rim paint with square caps, a stroked zero width rect ends square as well
+        final Paint handLinePaint;
+        final TimeSource timeSource;
+        int changingConfigurations;
+
+        // hand paths around the centre, pointing at 12 o'clock
+        final Path hourHandPath = new Path();
+        final Path minuteHandPath = new Path();
+        private float pathHourHandLength = -1;
+        private float pathMinuteHandLength = -1;
+        private float pathScrewRadius = -1;
+
+        ClockState(Resources resources, TimeSource timeSource) {
+            this.timeSource = timeSource;
+
+            facePaint = new Paint(ANTI_ALIAS_FLAG);
+            facePaint.setColor(resources.getColor(FACE_COLOR));
+            facePaint.setStyle(FILL);
+
+            rimPaint = new Paint(ANTI_ALIAS_FLAG);
+            rimPaint.setColor(resources.getColor(RIM_COLOR));
+            rimPaint.setStyle(STROKE);
+            rimPaint.setStrokeCap(ROUND);
+            rimPaint.setStrokeWidth(resources.getDimension(R.dimen.clock_stroke_width));
+
+            handLinePaint = new Paint(rimPaint);
+            handLinePaint.setStrokeCap(SQUARE);
+        }
+
+        ClockState(ClockState other) {
+            timeSource = other.timeSource;
+            changingConfigurations = other.changingConfigurations;
+            facePaint = new Paint(other.facePaint);
+            rimPaint = new Paint(other.rimPaint);
+            handLinePaint = new Paint(other.handLinePaint);
+        }
+
+        /**
+         * Rebuilds the hand paths if {@code painter} is sized differently from the last clock
+         * that drew them.
+         */
+        void updateHandPaths(ClockPainter painter) {
+            float hourHandLength = painter.getHourHandLength();
+            float minuteHandLength = painter.getMinuteHandLength();
+            float screwRadius = painter.getScrewRadius();
+            if (hourHandLength == pathHourHandLength && minuteHandLength == pathMinuteHandLength
+                    && screwRadius == pathScrewRadius) {
+                return;
+            }
+            pathHourHandLength = hourHandLength;
+            pathMinuteHandLength = minuteHandLength;
+            pathScrewRadius = screwRadius;
+
+            hourHandPath.reset();
+            hourHandPath.moveTo(0, 0);
+            hourHandPath.addRect(0, -screwRadius, 0, -screwRadius - hourHandLength, Direction.CCW);
+            hourHandPath.close();
+
+            minuteHandPath.reset();
+            minuteHandPath.moveTo(0, 0);
+            minuteHandPath.addRect(0, -screwRadius, 0, -screwRadius - minuteHandLength, Direction.CCW);
+            minuteHandPath.close();
+        }
+
+        @Override public Drawable newDrawable() {
+            return new ClockDrawable(this);
+        }
+
+        @Override public Drawable newDrawable(Resources resources) {
+            return new ClockDrawable(this);
+        }
+
+        @Override public int getChangingConfigurations() {
+            return changingConfigurations;
+        }
+    }
+
+    /**
+     * Draws with the paints of the clock's current state, which {@link #mutate()} can replace.
+     */
+    private static final class CanvasSurface implements ClockSurface {
+        private final ClockDrawable clock;
+        Canvas canvas;
+        // stroke of the line being drawn, null for the rim paint
+        Paint linePaint;
+
+        CanvasSurface(ClockDrawable clock) {
+            this.clock = clock;
+        }
+
+        @Override public void strokeCircle(float centerX, float centerY, float radius) {
+            canvas.drawCircle(centerX, centerY, radius, clock.state.rimPaint);
+        }
+
+        @Override public void fillCircle(float centerX, float centerY, float radius) {
+            canvas.drawCircle(centerX, centerY, radius, clock.state.facePaint);
+        }
+
+        @Override public void strokeHand(float startX, float startY, float stopX, float stopY) {
+            // keeps the square ends of the stroked hand paths
+            canvas.drawLine(startX, startY, stopX, stopY, linePaint != null ? linePaint : clock.state.handLinePaint);
+        }
+
+        @Override public void strokeLine(float startX, float startY, float stopX, float stopY) {
+            canvas.drawLine(startX, startY, stopX, stopY, linePaint != null ? linePaint : clock.state.rimPaint);
         }
-        return minutesBetween(t1, t2.withDate(t1.getYear(), t1.getMonthOfYear(), t1.getDayOfMonth())).getMinutes();
     }
 }
@@ -0,0 +1,95 @@
+package roo.clockanimation;
+
+import android.graphics.Bitmap;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.util.LruCache;
+
+/**
+ * LRU cache of rendered clock faces (rim, face and screw), shared between {@link ClockDrawable}s
+ * that have the same size, colours and alpha. The budget is in bytes of bitmap memory.
+ */
+public class ClockFaceCache {
+
+    public static final int DEFAULT_MAX_BYTES = 4 * 1024 * 1024;
+
+    private static ClockFaceCache shared;
+
+    private final LruCache<Key, Bitmap> faces;
+
+    public ClockFaceCache(int maxBytes) {
+        faces = new LruCache<Key, Bitmap>(maxBytes) {
+            @Override protected int sizeOf(Key key, Bitmap bitmap) {
+                return bitmap.getRowBytes() * bitmap.getHeight();
+            }
+        };
+    }
+
+    public static synchronized ClockFaceCache getShared() {
+        if (shared == null) {
+            shared = new ClockFaceCache(DEFAULT_MAX_BYTES);
+        }
+        return shared;
+    }
+
+    public Bitmap get(Key key) {
+        return faces.get(key);
+    }
+
+    public void put(Key key, Bitmap face) {
+        faces.put(key, face);
+    }
+
+    public void evictAll() {
+        faces.evictAll();
+    }
+
+    public int size() {
+        return faces.size();
+    }
+
+    public static final class Key {
+        private final int width;
+        private final int height;
+        private final int rimColor;
+        private final int faceColor;
+        private final float strokeWidth;
+        private final ColorFilter colorFilter;
+
+        public Key(int width, int height, Paint rimPaint, Paint facePaint) {
+            this.width = width;
+            this.height = height;
+            // the paint colours carry the alpha set on the drawable
+            this.rimColor = rimPaint.getColor();
+            this.faceColor = facePaint.getColor();
+            this.strokeWidth = rimPaint.getStrokeWidth();
+            this.colorFilter = rimPaint.getColorFilter();
+        }
+
+        @Override public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return width == key.width
+                    && height == key.height
+                    && rimColor == key.rimColor
+                    && faceColor == key.faceColor
+                    && Float.compare(strokeWidth, key.strokeWidth) == 0
+                    && colorFilter == key.colorFilter;
+        }
+
+        @Override public int hashCode() {
+            int result = width;
+            result = 31 * result + height;
+            result = 31 * result + rimColor;
+            result = 31 * result + faceColor;
+            result = 31 * result + Float.floatToIntBits(strokeWidth);
+            result = 31 * result + System.identityHashCode(colorFilter);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package roo.clockanimation;
+
+/**
+ * What {@link ClockDrawable} does on every transition frame, without Android: moves the hands
+ * along the transition or timeline being played and decides whether the frame is redrawn. The
+ * drawable only adds the invalidation itself, so tests can step the same code with a
+ * {@link ManualFrameClock}.
+ */
+public abstract class ClockFrameStepper {
+
+    private final ClockKinematics kinematics;
+    private final ClockPainter painter;
+
+    private ClockTimeline timeline;
+    // added to the play time of the animator or ticker, to resume a transition part way through
+    private long playTimeOffset;
+    private long framePlayTime;
+
+    // per hand, in the order of the kinematics, where the hands were last drawn
+    private float[] drawnRotations = new float[2];
+
+    private float minTipTravel;
+    private int skippedFrames;
+
+    /**
+     * @param timeSource gives the day the hands start on, at midnight
+     */
+    public ClockFrameStepper(TimeSource timeSource, ClockPainter painter) {
+        this.kinematics = new ClockKinematics(ClockKinematics.startOfDay(
+                ClockKinematics.epochMinuteAt(timeSource.currentLocalMillis())));
+        this.painter = painter;
+    }
+
+    /**
+     * Redraws the area the hands moved over since {@link #markDrawn()}.
+     */
+    protected abstract void invalidateHands();
+
+    public ClockKinematics getKinematics() {
+        return kinematics;
+    }
+
+    /**
+     * Adds a hand to the kinematics and the painter, see {@link ClockKinematics#addHand(double, double)}.
+     *
+     * @return index of the hand
+     */
+    public int addHand(double degreesPerMinute, double offsetDegrees, float lengthRatio) {
+        int hand = kinematics.addHand(degreesPerMinute, offsetDegrees);
+        painter.addHand(lengthRatio);
+        if (hand == drawnRotations.length) {
+            float[] rotations = new float[hand * 2];
+            System.arraycopy(drawnRotations, 0, rotations, 0, hand);
+            drawnRotations = rotations;
+        }
+        drawnRotations[hand] = kinematics.getCurrentRotation(hand);
+        return hand;
+    }
+
+    /**
+     * Sets off a transition from where the hands are to {@code epochMinute}, taking
+     * {@code duration} millis, with the play time starting over. Called before the frames are
+     * started; a spring already running is only retargeted, so it keeps its velocity.
+     */
+    public void startTransition(long epochMinute, long duration) {
+        kinematics.retarget(epochMinute);
+        kinematics.setDuration(duration);
+        setPlayTimeOffset(0);
+        kinematics.begin();
+    }
+
+    /**
+     * Moves the hands to {@code playTime} millis into the transition, or into the timeline if one
+     * is set, and invalidates them unless no tip moved enough. The last frame is always
+     * invalidated.
+     *
+     * @return true while the transition is still running
+     */
+    public boolean onFrame(long playTime) {
+        framePlayTime = playTimeOffset + playTime;
+        boolean running;
+        if (timeline != null) {
+            running = timeline.seek(framePlayTime);
+            kinematics.follow(timeline);
+        } else {
+            running = kinematics.update(framePlayTime);
+        }
+        // the last frame is always drawn, so the hands end exactly on their targets
+        if (running && !handsMoved()) {
+            skippedFrames++;
+        } else {
+            invalidateHands();
+        }
+        return running;
+    }
+
+    /**
+     * Whether a hand tip moved at least {@link #setMinTipTravel(float) the minimum} since the
+     * hands were last drawn.
+     */
+    private boolean handsMoved() {
+        if (minTipTravel <= 0f) {
+            return true;
+        }
+        for (int i = 0, handCount = kinematics.getHandCount(); i < handCount; i++) {
+            if (painter.tipTravel(drawnRotations[i], kinematics.getCurrentRotation(i), painter.getHandLength(i)) >= minTipTravel) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Records the current angles as the ones drawn, called when the hands are drawn.
+     */
+    public void markDrawn() {
+        for (int i = 0, handCount = kinematics.getHandCount(); i < handCount; i++) {
+            drawnRotations[i] = kinematics.getCurrentRotation(i);
+        }
+    }
+
+    public float getDrawnRotation(int hand) {
+        return drawnRotations[hand];
+    }
+
+    public void setMinTipTravel(float pixels) {
+        minTipTravel = pixels;
+    }
+
+    public int getSkippedFrameCount() {
+        return skippedFrames;
+    }
+
+    public void setTimeline(ClockTimeline timeline) {
+        this.timeline = timeline;
+    }
+
+    public ClockTimeline getTimeline() {
+        return timeline;
+    }
+
+    /**
+     * Added to the play times passed to {@link #onFrame(long)}, also the frame play time until
+     * the next frame.
+     */
+    public void setPlayTimeOffset(long playTimeOffset) {
+        this.playTimeOffset = playTimeOffset;
+        framePlayTime = playTimeOffset;
+    }
+
+    /**
+     * Play time of the last frame, including the offset.
+     */
+    public long getFramePlayTime() {
+        return framePlayTime;
+    }
+}
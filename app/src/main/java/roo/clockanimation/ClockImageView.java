@@ -0,0 +1,45 @@
+package roo.clockanimation;
+
+import android.content.Context;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.drawable.Drawable;
+import android.util.AttributeSet;
+import android.widget.ImageView;
+
+import roo.clockanimation.ClockDrawable.PartialInvalidationCallback;
+
+/**
+ * ImageView that lets a {@link ClockDrawable} repaint only the region its hands moved through.
+ * Hardware accelerated windows redraw the whole display list anyway, so the drawable falls back
+ * to a full invalidation there.
+ */
+public class ClockImageView extends ImageView implements PartialInvalidationCallback {
+
+    private final RectF dirty = new RectF();
+
+    public ClockImageView(Context context) {
+        super(context);
+    }
+
+    public ClockImageView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+    }
+
+    public ClockImageView(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+    }
+
+    @Override public boolean invalidateDrawable(Drawable who, Rect dirtyRect) {
+        if (who != getDrawable() || isHardwareAccelerated()) {
+            return false;
+        }
+        dirty.set(dirtyRect);
+        getImageMatrix().mapRect(dirty);
+        invalidate((int) Math.floor(dirty.left) + getPaddingLeft(),
+                (int) Math.floor(dirty.top) + getPaddingTop(),
+                (int) Math.ceil(dirty.right) + getPaddingLeft(),
+                (int) Math.ceil(dirty.bottom) + getPaddingTop());
+        return true;
+    }
+}
@@ -0,0 +1,547 @@
+package roo.clockanimation;
+
+/**
+ * Android-free hand kinematics behind {@link ClockDrawable}.
+ * <p>
+ * Times are primitive epoch minutes (minutes since 1970-01-01T00:00 local time) and angles are
+ * degrees clockwise from 12 o'clock. Nothing in here allocates, so it can be fed from high
+ * frequency time sources and unit tested or benchmarked on a plain JVM.
+ */
+public final class ClockKinematics {
+
+    /**
+     * Decides how many of the whole revolutions of a jump a hand actually spins through. The
+     * angle left over after the whole revolutions is always kept, so the hands end up in the same
+     * place whatever the policy.
+     */
+    public interface RevolutionPolicy {
+        long revolutions(long wholeRevolutions);
+    }
+
+    public static final RevolutionPolicy ALL_REVOLUTIONS = new RevolutionPolicy() {
+        @Override public long revolutions(long wholeRevolutions) {
+            return wholeRevolutions;
+        }
+    };
+
+    public static final int MINUTES_PER_DAY = 24 * 60;
+
+    // 60min ... 360grade
+    public static final float MIN_DEGREES_PER_MINUTE = 360f / 60f;
+    // 720min ... 360grade = 12h ... 360grade
+    public static final float HOUR_DEGREES_PER_MINUTE = 360f / 720f;
+    // 1440min ... 360grade = 24h ... 360grade
+    public static final double HOUR_24_DEGREES_PER_MINUTE = 360d / MINUTES_PER_DAY;
+    // 7 days ... 360grade
+    public static final double DAY_OF_WEEK_DEGREES_PER_MINUTE = 360d / (7 * MINUTES_PER_DAY);
+    // 1970-01-01 was a Thursday, three days after the Monday that points at 12 o'clock
+    public static final double DAY_OF_WEEK_MONDAY_ON_TOP = 3 * 360d / 7;
+
+    public static final float SEC_DEGREES_PER_SECOND = 360f / 60f;
+
+    public static final long DEFAULT_DURATION = 500;
+
+    /**
+     * Indices of the two hands every clock starts with.
+     */
+    public static final int HOUR_HAND = 0;
+    public static final int MINUTE_HAND = 1;
+
+    // per hand floats written by save(float[])
+    private static final int SAVED_PER_HAND = 4;
+
+    // omega * duration for which a critically damped spring is within 0.1% of its jump
+    private static final float SPRING_SETTLE = 9.23f;
+    private static final float SPRING_REST_ROTATION = 0.01f;
+    private static final float SPRING_REST_VELOCITY = 0.5f;
+
+    // hands as structure of arrays, indexed by hand, so a frame is one loop over primitives;
+    // targets are doubles, so rotation pending over thousands of updates adds up exactly
+    private int handCount;
+    private double[] degreesPerMinute = new double[2];
+    private double[] offsetDegrees = new double[2];
+    private double[] remainingRotations = new double[2];
+    private double[] targetRotations = new double[2];
+    private float[] currentRotations = new float[2];
+    private double[] startRotations = new double[2];
+    private float[] velocities = new float[2];
+
+    private long previousMinute;
+
+    private long duration = DEFAULT_DURATION;
+
+    private boolean animateDays = true;
+
+    private RevolutionPolicy revolutionPolicy = ALL_REVOLUTIONS;
+
+    private boolean spring;
+    private long springTime;
+
+    /**
+     * A clock with an hour and a minute hand, see {@link #addHand(double, double)} for more.
+     */
+    public ClockKinematics(long epochMinute) {
+        previousMinute = epochMinute;
+        addHand(HOUR_DEGREES_PER_MINUTE, 0);
+        addHand(MIN_DEGREES_PER_MINUTE, 0);
+    }
+
+    /**
+     * Adds a hand turning {@code degreesPerMinute} as time goes by, e.g.
+     * {@link #HOUR_24_DEGREES_PER_MINUTE} or {@link #DAY_OF_WEEK_DEGREES_PER_MINUTE}, and pointing
+     * {@code offsetDegrees} from 12 o'clock at 1970-01-01T00:00. The hand starts on the current
+     * time with nothing pending.
+     *
+     * @return index of the hand
+     */
+    public int addHand(double degreesPerMinute, double offsetDegrees) {
+        if (handCount == currentRotations.length) {
+            int capacity = handCount * 2;
+            this.degreesPerMinute = grow(this.degreesPerMinute, capacity);
+            this.offsetDegrees = grow(this.offsetDegrees, capacity);
+            remainingRotations = grow(remainingRotations, capacity);
+            targetRotations = grow(targetRotations, capacity);
+            currentRotations = grow(currentRotations, capacity);
+            startRotations = grow(startRotations, capacity);
+            velocities = grow(velocities, capacity);
+        }
+        int hand = handCount++;
+        this.degreesPerMinute[hand] = degreesPerMinute;
+        this.offsetDegrees[hand] = offsetDegrees;
+        resetHand(hand, previousMinute);
+        return hand;
+    }
+
+    public int getHandCount() {
+        return handCount;
+    }
+
+    public double getDegreesPerMinute(int hand) {
+        return degreesPerMinute[hand];
+    }
+
+    public double getOffsetDegrees(int hand) {
+        return offsetDegrees[hand];
+    }
+
+    public void setAnimateDays(boolean animateDays) {
+        this.animateDays = animateDays;
+    }
+
+    public boolean isAnimateDays() {
+        return animateDays;
+    }
+
+    public void setDuration(long duration) {
+        this.duration = duration;
+    }
+
+    public long getDuration() {
+        return duration;
+    }
+
+    /**
+     * Limits how many whole revolutions a big jump spins the hands through, e.g.
+     * {@link #capRevolutions(long)} so a jump of months does not turn into millions of degrees.
+     */
+    public void setRevolutionPolicy(RevolutionPolicy revolutionPolicy) {
+        this.revolutionPolicy = revolutionPolicy;
+    }
+
+    public RevolutionPolicy getRevolutionPolicy() {
+        return revolutionPolicy;
+    }
+
+    /**
+     * Switches between the fixed duration interpolated transition and a critically damped spring.
+     * The spring keeps its velocity when the target moves, so a transition in flight can be
+     * retargeted instead of restarted; it settles in about the duration after the last retarget.
+     */
+    public void setSpring(boolean spring) {
+        this.spring = spring;
+        for (int i = 0; i < handCount; i++) {
+            velocities[i] = 0f;
+        }
+    }
+
+    public boolean isSpring() {
+        return spring;
+    }
+
+    /**
+     * Marks the start of a new run of play times, see {@link #update(long)}.
+     */
+    public void begin() {
+        springTime = 0;
+    }
+
+    /**
+     * Places the hands on the given time without any pending rotation.
+     */
+    public void reset(long epochMinute) {
+        for (int i = 0; i < handCount; i++) {
+            resetHand(i, epochMinute);
+        }
+        previousMinute = epochMinute;
+    }
+
+    private void resetHand(int hand, long epochMinute) {
+        double rotation = (epochMinute * degreesPerMinute[hand] + offsetDegrees[hand]) % 360d;
+        currentRotations[hand] = (float) (rotation < 0 ? rotation + 360d : rotation);
+        startRotations[hand] = currentRotations[hand];
+        targetRotations[hand] = currentRotations[hand];
+        remainingRotations[hand] = 0d;
+        velocities[hand] = 0f;
+    }
+
+    /**
+     * Adds the rotation needed to get from the previous time to {@code epochMinute} and moves the
+     * targets accordingly. Rotation still pending from an interrupted transition is kept and the
+     * next transition starts from the current angles.
+     */
+    public void retarget(long epochMinute) {
+        int minDiff = minutesBetween(previousMinute, epochMinute, animateDays);
+
+        normalize();
+        for (int i = 0; i < handCount; i++) {
+            remainingRotations[i] = limitRevolutions(remainingRotations[i] + minDiff * degreesPerMinute[i],
+                    revolutionPolicy);
+            startRotations[i] = currentRotations[i];
+            targetRotations[i] = currentRotations[i] + remainingRotations[i];
+        }
+
+        previousMinute = epochMinute;
+    }
+
+    /**
+     * Moves all hands to where the transition is {@code playTime} millis after it started, or
+     * after {@link #begin()} for the spring.
+     *
+     * @return true while the transition is still running
+     */
+    public boolean update(long playTime) {
+        if (spring) {
+            long deltaTime = playTime - springTime;
+            springTime = playTime;
+            return step(deltaTime / 1000f);
+        }
+        if (playTime >= duration) {
+            finish();
+            return false;
+        }
+        setProgress(interpolate(playTime / (float) duration));
+        return true;
+    }
+
+    /**
+     * Moves all hands to the given interpolated fraction between the start and target angles.
+     */
+    public void setProgress(float fraction) {
+        for (int i = 0; i < handCount; i++) {
+            currentRotations[i] = (float) (startRotations[i] + (targetRotations[i] - startRotations[i]) * fraction);
+            remainingRotations[i] = targetRotations[i] - currentRotations[i];
+        }
+    }
+
+    /**
+     * Puts all hands on their targets with no rotation left.
+     */
+    public void finish() {
+        normalizeTargets();
+        for (int i = 0; i < handCount; i++) {
+            currentRotations[i] = (float) targetRotations[i];
+            startRotations[i] = targetRotations[i];
+            remainingRotations[i] = 0d;
+            velocities[i] = 0f;
+        }
+    }
+
+    /**
+     * Places the hands where {@code timeline} is, with the rest of its current step pending, so a
+     * later {@link #retarget(long)} lands as if that step had finished. Hands the timeline does
+     * not have are left alone.
+     */
+    public void follow(ClockTimeline timeline) {
+        int hands = Math.min(handCount, timeline.getHandCount());
+        for (int i = 0; i < hands; i++) {
+            currentRotations[i] = timeline.getRotation(i);
+            startRotations[i] = currentRotations[i];
+            targetRotations[i] = timeline.getTargetRotation(i);
+            remainingRotations[i] = targetRotations[i] - currentRotations[i];
+            velocities[i] = 0f;
+        }
+        previousMinute = timeline.getTargetMinute();
+        normalize();
+    }
+
+    /**
+     * Length of the array {@link #save(float[])} fills.
+     */
+    public int getSavedLength() {
+        return handCount * SAVED_PER_HAND;
+    }
+
+    /**
+     * Writes the start, current and target angles and the velocity of every hand into
+     * {@code rotations}, so {@link #restore(long, double[])} can carry on from exactly here, mid
+     * transition or not. The start and target angles are kept in full precision, a target many
+     * turns away would not land exactly from a float.
+     */
+    public void save(double[] rotations) {
+        for (int i = 0, j = 0; i < handCount; i++, j += SAVED_PER_HAND) {
+            rotations[j] = startRotations[i];
+            rotations[j + 1] = currentRotations[i];
+            rotations[j + 2] = targetRotations[i];
+            rotations[j + 3] = velocities[i];
+        }
+    }
+
+    /**
+     * Puts back the state written by {@link #save(double[])} together with
+     * {@link #getPreviousMinute()}. Hands that were not saved are put on the time.
+     */
+    public void restore(long previousMinute, double[] rotations) {
+        this.previousMinute = previousMinute;
+        int saved = Math.min(handCount, rotations.length / SAVED_PER_HAND);
+        for (int i = 0, j = 0; i < saved; i++, j += SAVED_PER_HAND) {
+            startRotations[i] = rotations[j];
+            currentRotations[i] = (float) rotations[j + 1];
+            targetRotations[i] = rotations[j + 2];
+            velocities[i] = (float) rotations[j + 3];
+            remainingRotations[i] = targetRotations[i] - currentRotations[i];
+        }
+        for (int i = saved; i < handCount; i++) {
+            resetHand(i, previousMinute);
+        }
+    }
+
+    /**
+     * Brings the current angles back into [0, 360) and shifts the start and target angles along,
+     * so float precision does not degrade however far the hands have turned. The targets move by
+     * exactly whole turns, the remaining rotation takes up any rounding of the current angles.
+     */
+    private void normalize() {
+        for (int i = 0; i < handCount; i++) {
+            float shift = (float) Math.floor(currentRotations[i] / 360f) * 360f;
+            currentRotations[i] -= shift;
+            startRotations[i] -= shift;
+            targetRotations[i] -= shift;
+            remainingRotations[i] = targetRotations[i] - currentRotations[i];
+        }
+    }
+
+    /**
+     * Same as {@link #normalize()} for hands about to land on their targets, bringing the
+     * targets into [0, 360) in double precision so the hands land exactly.
+     */
+    private void normalizeTargets() {
+        for (int i = 0; i < handCount; i++) {
+            double shift = Math.floor(targetRotations[i] / 360d) * 360d;
+            targetRotations[i] -= shift;
+        }
+    }
+
+    /**
+     * Advances the critically damped spring by {@code seconds}, using the closed form solution so
+     * any frame time is stable. The spring runs on the displacement from the target in double; a
+     * float angle many turns away from zero rounds by more than the rest threshold and would
+     * never come to rest.
+     */
+    private boolean step(float seconds) {
+        double omega = SPRING_SETTLE * 1000d / duration;
+        double decay = Math.exp(-omega * seconds);
+
+        boolean resting = true;
+        for (int i = 0; i < handCount; i++) {
+            double displacement = -remainingRotations[i];
+            double slope = velocities[i] + omega * displacement;
+            displacement = (displacement + slope * seconds) * decay;
+            velocities[i] = (float) ((velocities[i] - omega * slope * seconds) * decay);
+            remainingRotations[i] = -displacement;
+            currentRotations[i] = (float) (targetRotations[i] + displacement);
+
+            resting &= Math.abs(remainingRotations[i]) < SPRING_REST_ROTATION
+                    && Math.abs(velocities[i]) < SPRING_REST_VELOCITY;
+        }
+
+        if (resting) {
+            finish();
+            return false;
+        }
+        return true;
+    }
+
+    public float getCurrentRotation(int hand) {
+        return currentRotations[hand];
+    }
+
+    public float getTargetRotation(int hand) {
+        return (float) targetRotations[hand];
+    }
+
+    public float getRemainingRotation(int hand) {
+        return (float) remainingRotations[hand];
+    }
+
+    public float getVelocity(int hand) {
+        return velocities[hand];
+    }
+
+    public float getCurrentHourRotation() {
+        return currentRotations[HOUR_HAND];
+    }
+
+    public float getCurrentMinRotation() {
+        return currentRotations[MINUTE_HAND];
+    }
+
+    public float getTargetHourRotation() {
+        return (float) targetRotations[HOUR_HAND];
+    }
+
+    public float getTargetMinRotation() {
+        return (float) targetRotations[MINUTE_HAND];
+    }
+
+    public float getRemainingHourRotation() {
+        return (float) remainingRotations[HOUR_HAND];
+    }
+
+    public float getRemainingMinRotation() {
+        return (float) remainingRotations[MINUTE_HAND];
+    }
+
+    public float getHourVelocity() {
+        return velocities[HOUR_HAND];
+    }
+
+    public float getMinVelocity() {
+        return velocities[MINUTE_HAND];
+    }
+
+    public long getPreviousMinute() {
+        return previousMinute;
+    }
+
+    private static float[] grow(float[] array, int capacity) {
+        float[] grown = new float[capacity];
+        System.arraycopy(array, 0, grown, 0, array.length);
+        return grown;
+    }
+
+    private static double[] grow(double[] array, int capacity) {
+        double[] grown = new double[capacity];
+        System.arraycopy(array, 0, grown, 0, array.length);
+        return grown;
+    }
+
+    /**
+     * Applies {@code policy} to the whole revolutions of {@code rotation}, keeping the rest.
+     */
+    public static double limitRevolutions(double rotation, RevolutionPolicy policy) {
+        long wholeRevolutions = (long) (rotation / 360d);
+        double rest = rotation - wholeRevolutions * 360d;
+        long revolutions = policy.revolutions(Math.abs(wholeRevolutions));
+        return (wholeRevolutions < 0 ? -revolutions : revolutions) * 360d + rest;
+    }
+
+    /**
+     * Spins through at most {@code maxRevolutions} whole revolutions.
+     */
+    public static RevolutionPolicy capRevolutions(final long maxRevolutions) {
+        return new RevolutionPolicy() {
+            @Override public long revolutions(long wholeRevolutions) {
+                return Math.min(wholeRevolutions, maxRevolutions);
+            }
+        };
+    }
+
+    /**
+     * Spins through a number of revolutions growing with the logarithm of the jump, up to
+     * {@code maxRevolutions}, so bigger jumps still look bigger.
+     */
+    public static RevolutionPolicy compressRevolutions(final long maxRevolutions) {
+        return new RevolutionPolicy() {
+            @Override public long revolutions(long wholeRevolutions) {
+                if (wholeRevolutions <= 1) {
+                    return wholeRevolutions;
+                }
+                long log2 = 63 - Long.numberOfLeadingZeros(wholeRevolutions);
+                return Math.min(1 + log2, maxRevolutions);
+            }
+        };
+    }
+
+    /**
+     * Same curve as {@code AccelerateDecelerateInterpolator}.
+     */
+    public static float interpolate(float input) {
+        return (float) (Math.cos((input + 1) * Math.PI) / 2.0f) + 0.5f;
+    }
+
+    /**
+     * Minutes between two epoch minutes. When days are not animated the date of {@code to} is
+     * ignored and only the time of day counts, so the result is within one day either way.
+     */
+    public static int minutesBetween(long from, long to, boolean animateDays) {
+        if (animateDays) {
+            return (int) (to - from);
+        }
+        return minuteOfDay(to) - minuteOfDay(from);
+    }
+
+    public static int minuteOfDay(long epochMinute) {
+        int minuteOfDay = (int) (epochMinute % MINUTES_PER_DAY);
+        return minuteOfDay < 0 ? minuteOfDay + MINUTES_PER_DAY : minuteOfDay;
+    }
+
+    /**
+     * Epoch minute of a local time given in millis since 1970-01-01T00:00 local time.
+     */
+    public static long epochMinuteAt(long localMillis) {
+        return floorDiv(localMillis, 60000);
+    }
+
+    /**
+     * Angle of a second hand at a local time, in whole seconds like a quartz clock.
+     */
+    public static float secondRotation(long localMillis) {
+        return (localMillis - floorDiv(localMillis, 60000) * 60000) / 1000 * SEC_DEGREES_PER_SECOND;
+    }
+
+    /**
+     * Millis from a local time to the next multiple of {@code period}, e.g. the next whole second
+     * or minute. Exactly on a boundary that is the whole period.
+     */
+    public static long millisUntilNext(long localMillis, long period) {
+        return (floorDiv(localMillis, period) + 1) * period - localMillis;
+    }
+
+    private static long floorDiv(long x, long y) {
+        long quotient = x / y;
+        return (x % y != 0 && (x < 0) != (y < 0)) ? quotient - 1 : quotient;
+    }
+
+    public static long startOfDay(long epochMinute) {
+        return epochMinute - minuteOfDay(epochMinute);
+    }
+
+    /**
+     * Epoch minute of a proleptic Gregorian (ISO) date and minute of day.
+     */
+    public static long epochMinute(int year, int monthOfYear, int dayOfMonth, int minuteOfDay) {
+        return epochDay(year, monthOfYear, dayOfMonth) * MINUTES_PER_DAY + minuteOfDay;
+    }
+
+    /**
+     * Days since 1970-01-01 of a proleptic Gregorian date, without going through a chronology.
+     */
+    public static long epochDay(int year, int monthOfYear, int dayOfMonth) {
+        long y = monthOfYear <= 2 ? year - 1 : year;
+        long era = (y >= 0 ? y : y - 399) / 400;
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153 * (monthOfYear + (monthOfYear > 2 ? -3 : 9)) + 2) / 5 + dayOfMonth - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+}
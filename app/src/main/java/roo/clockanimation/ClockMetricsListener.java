@@ -0,0 +1,22 @@
+package roo.clockanimation;
+
+/**
+ * Per frame measurements of a {@link ClockDrawable}. Nothing is measured while no listener is set.
+ */
+public interface ClockMetricsListener {
+
+    /**
+     * @param drawNanos         time spent in {@code draw}
+     * @param updateToDrawNanos time from the last hand update to this draw, or -1 if the draw was
+     *                          not caused by a hand update
+     */
+    void onDraw(ClockDrawable clock, long drawNanos, long updateToDrawNanos);
+
+    /**
+     * @param frames        hand updates during the transition
+     * @param droppedFrames frames missed between updates that came late
+     * @param invalidations invalidations requested by the hand updates
+     * @param interrupted   whether the transition was stopped before it ended
+     */
+    void onTransitionEnd(ClockDrawable clock, int frames, int droppedFrames, int invalidations, boolean interrupted);
+}
@@ -0,0 +1,136 @@
+package roo.clockanimation;
+
+/**
+ * Geometry and drawing of the clock, independent of the rendering backend. The sizes follow the
+ * bounds and stroke width the same way for every backend, so an exported frame looks like the
+ * drawable on screen.
+ */
+public final class ClockPainter {
+
+    private float strokeWidth;
+    private float rimRadius;
+    private float faceRadius;
+    private float screwRadius;
+    private float secondHandLength;
+
+    // per hand, in the order of ClockKinematics
+    private int handCount;
+    private float[] handLengthRatios = new float[2];
+    private float[] handLengths = new float[2];
+
+    /**
+     * A clock with an hour and a minute hand, see {@link #addHand(float)} for more.
+     */
+    public ClockPainter() {
+        addHand(0.5f);
+        addHand(0.7f);
+    }
+
+    /**
+     * Adds a hand {@code lengthRatio} times the face radius long.
+     *
+     * @return index of the hand
+     */
+    public int addHand(float lengthRatio) {
+        if (handCount == handLengths.length) {
+            float[] ratios = new float[handCount * 2];
+            float[] lengths = new float[handCount * 2];
+            System.arraycopy(handLengthRatios, 0, ratios, 0, handCount);
+            System.arraycopy(handLengths, 0, lengths, 0, handCount);
+            handLengthRatios = ratios;
+            handLengths = lengths;
+        }
+        handLengthRatios[handCount] = lengthRatio;
+        handLengths[handCount] = lengthRatio * faceRadius;
+        return handCount++;
+    }
+
+    public void setSize(int width, int height, float strokeWidth) {
+        this.strokeWidth = strokeWidth;
+        rimRadius = Math.min(width, height) / 2f - strokeWidth;
+        faceRadius = rimRadius - strokeWidth;
+        screwRadius = strokeWidth * 2;
+        for (int i = 0; i < handCount; i++) {
+            handLengths[i] = handLengthRatios[i] * faceRadius;
+        }
+        secondHandLength = (float) (0.8 * faceRadius);
+    }
+
+    public void drawFace(ClockSurface surface, float centerX, float centerY) {
+        // draw the outer rim of the clock
+        surface.strokeCircle(centerX, centerY, rimRadius);
+        // draw the face of the clock
+        surface.fillCircle(centerX, centerY, faceRadius);
+        // draw the little rim in the middle of the clock
+        surface.strokeCircle(centerX, centerY, screwRadius);
+    }
+
+    public void drawHands(ClockSurface surface, float centerX, float centerY, float hourRotation, float minRotation) {
+        // draw hour hand
+        drawHand(surface, centerX, centerY, ClockKinematics.HOUR_HAND, hourRotation);
+        // draw minute hand
+        drawHand(surface, centerX, centerY, ClockKinematics.MINUTE_HAND, minRotation);
+    }
+
+    public void drawHand(ClockSurface surface, float centerX, float centerY, int hand, float rotation) {
+        drawHand(surface, centerX, centerY, rotation, handLengths[hand], hand <= ClockKinematics.MINUTE_HAND);
+    }
+
+    public void drawSecondHand(ClockSurface surface, float centerX, float centerY, float secondRotation) {
+        drawHand(surface, centerX, centerY, secondRotation, secondHandLength, false);
+    }
+
+    /**
+     * Draws a hand as one line from the screw to the tip, with end points from the angle table
+     * instead of a rotated coordinate system.
+     */
+    private void drawHand(ClockSurface surface, float centerX, float centerY, float rotation, float handLength,
+            boolean squareCaps) {
+        float sin = AngleTable.sin(rotation);
+        float cos = AngleTable.cos(rotation);
+        float tip = screwRadius + handLength;
+        if (squareCaps) {
+            surface.strokeHand(centerX + screwRadius * sin, centerY - screwRadius * cos,
+                    centerX + tip * sin, centerY - tip * cos);
+        } else {
+            surface.strokeLine(centerX + screwRadius * sin, centerY - screwRadius * cos,
+                    centerX + tip * sin, centerY - tip * cos);
+        }
+    }
+
+    /**
+     * Straight distance the tip of a hand moves between two angles, so whole turns in between do
+     * not count.
+     */
+    public float tipTravel(float fromRotation, float toRotation, float handLength) {
+        return Math.abs(2f * (screwRadius + handLength) * AngleTable.sin((toRotation - fromRotation) / 2f));
+    }
+
+    public float getStrokeWidth() {
+        return strokeWidth;
+    }
+
+    public float getScrewRadius() {
+        return screwRadius;
+    }
+
+    public int getHandCount() {
+        return handCount;
+    }
+
+    public float getHandLength(int hand) {
+        return handLengths[hand];
+    }
+
+    public float getHourHandLength() {
+        return handLengths[ClockKinematics.HOUR_HAND];
+    }
+
+    public float getMinuteHandLength() {
+        return handLengths[ClockKinematics.MINUTE_HAND];
+    }
+
+    public float getSecondHandLength() {
+        return secondHandLength;
+    }
+}
@@ -0,0 +1,24 @@
+package roo.clockanimation;
+
+/**
+ * What {@link ClockPainter} draws on: the Android canvas inside {@link ClockDrawable}, or a
+ * headless raster backend off-device. Everything is stroked in the rim colour and stroke width,
+ * the face fill uses the face colour. The hour and minute hands have square caps, like the
+ * stroked hand paths of the drawable; the rim, other hands and the second hand are round.
+ */
+public interface ClockSurface {
+
+    void strokeCircle(float centerX, float centerY, float radius);
+
+    void fillCircle(float centerX, float centerY, float radius);
+
+    /**
+     * An hour or minute hand, with square caps.
+     */
+    void strokeHand(float startX, float startY, float stopX, float stopY);
+
+    /**
+     * Any other hand, with round caps.
+     */
+    void strokeLine(float startX, float startY, float stopX, float stopY);
+}
@@ -0,0 +1,138 @@
+package roo.clockanimation;
+
+/**
+ * Drives any number of clocks from one {@link FrameClock} callback.
+ * <p>
+ * Clocks register while they animate and are visible, and unregister when their transition ends,
+ * when they are stopped (e.g. a recycled list row) or hidden. Registered clocks live in a compact
+ * array and know their own slot, so registering, unregistering and ticking a clock is O(1) and
+ * allocation free. Must be used from the thread of its frame clock, see
+ * {@link ChoreographerFrameClock#getSharedTicker()} for the one on the display's frames.
+ */
+public class ClockTicker implements FrameClock.FrameCallback {
+
+    /**
+     * A clock driven by the ticker. Play time starts at the first frame after
+     * {@link #start(Client)}.
+     */
+    public abstract static class Client {
+        // slot in the ticker's array, -1 when not registered
+        int tickerIndex = -1;
+        // the ticker's frame this client last ticked on, or joined during
+        int tickedFrame;
+        private long startNanos = -1;
+
+        /**
+         * @return false once the transition is over, which unregisters the client
+         */
+        protected abstract boolean onFrame(long playTime);
+
+        public boolean isRegistered() {
+            return tickerIndex >= 0;
+        }
+
+        final boolean tick(long frameTimeNanos) {
+            if (startNanos < 0) {
+                startNanos = frameTimeNanos;
+            }
+            return onFrame((frameTimeNanos - startNanos) / 1000000);
+        }
+    }
+
+    private final FrameClock frameClock;
+
+    private Client[] clients = new Client[16];
+    private int count;
+    private boolean scheduled;
+
+    private int frame;
+    private boolean dispatching;
+    // lowest slot a client was moved into by an unregister during the current callback
+    private int lowestMoved;
+
+    public ClockTicker(FrameClock frameClock) {
+        this.frameClock = frameClock;
+    }
+
+    /**
+     * Registers the client with its play time starting over.
+     */
+    public void start(Client client) {
+        client.startNanos = -1;
+        register(client);
+    }
+
+    /**
+     * Registers the client, resuming its play time where it was.
+     */
+    public void register(Client client) {
+        if (client.tickerIndex >= 0) {
+            return;
+        }
+        if (count == clients.length) {
+            Client[] grown = new Client[count * 2];
+            System.arraycopy(clients, 0, grown, 0, count);
+            clients = grown;
+        }
+        clients[count] = client;
+        client.tickerIndex = count;
+        count++;
+        if (dispatching) {
+            // ticks from the next frame on
+            client.tickedFrame = frame;
+        }
+
+        if (!scheduled) {
+            scheduled = true;
+            frameClock.postFrameCallback(this);
+        }
+    }
+
+    public void unregister(Client client) {
+        int index = client.tickerIndex;
+        if (index < 0) {
+            return;
+        }
+        count--;
+        Client last = clients[count];
+        clients[index] = last;
+        last.tickerIndex = index;
+        clients[count] = null;
+        client.tickerIndex = -1;
+        if (dispatching && index < count) {
+            lowestMoved = Math.min(lowestMoved, index);
+        }
+    }
+
+    public int getActiveCount() {
+        return count;
+    }
+
+    @Override public void doFrame(long frameTimeNanos) {
+        scheduled = false;
+        frame++;
+        dispatching = true;
+        // a callback may unregister any client, which moves the last one into its slot; slots a
+        // client moved into are looked at again and the frame stamp skips clients that ticked
+        int i = 0;
+        while (i < count) {
+            Client client = clients[i];
+            if (client.tickedFrame == frame) {
+                i++;
+                continue;
+            }
+            client.tickedFrame = frame;
+            lowestMoved = Integer.MAX_VALUE;
+            if (!client.tick(frameTimeNanos)) {
+                unregister(client);
+            }
+            i = Math.min(i + 1, lowestMoved);
+        }
+        dispatching = false;
+        // a client registered during the frame may have scheduled the next one already
+        if (count > 0 && !scheduled) {
+            scheduled = true;
+            frameClock.postFrameCallback(this);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package roo.clockanimation;
+
+/**
+ * A scripted sequence of transitions, e.g. a shift schedule sweeping through the day.
+ * <p>
+ * The hand angles of every step are worked out once, when the timeline is built, into primitive
+ * keyframe arrays. Playing it back only looks up the step of the play time and interpolates
+ * between two keyframes, with no date arithmetic and no allocation. Each step eases in and out
+ * like a single {@link ClockDrawable} transition.
+ */
+public final class ClockTimeline {
+
+    private final int handCount;
+    private final long startMinute;
+    private final long[] minutes;
+    // play time at which each step ends
+    private final long[] endTimes;
+
+    // angle of each hand at the start of each step, in [0, 360), and how far the step turns it
+    // from there, at [step * handCount + hand]
+    private final float[] startRotations;
+    private final float[] deltas;
+
+    private boolean looping;
+
+    private int step;
+    private final float[] rotations;
+
+    /**
+     * A timeline of an hour and a minute hand.
+     *
+     * @param startMinute epoch minute the first step starts from
+     * @param minutes epoch minutes the steps end on
+     * @param durations millis each step takes, 0 to jump
+     * @param animateDays see {@link ClockKinematics#setAnimateDays(boolean)}
+     * @param revolutionPolicy see {@link ClockKinematics#setRevolutionPolicy(ClockKinematics.RevolutionPolicy)}
+     */
+    public ClockTimeline(long startMinute, long[] minutes, long[] durations, boolean animateDays,
+                         ClockKinematics.RevolutionPolicy revolutionPolicy) {
+        this(new ClockKinematics(startMinute), startMinute, minutes, durations, animateDays, revolutionPolicy);
+    }
+
+    /**
+     * A timeline of all the hands of {@code clock}, starting from the time it is on with its day
+     * and revolution settings.
+     */
+    public ClockTimeline(ClockKinematics clock, long[] minutes, long[] durations) {
+        this(clock, clock.getPreviousMinute(), minutes, durations, clock.isAnimateDays(), clock.getRevolutionPolicy());
+    }
+
+    private ClockTimeline(ClockKinematics hands, long startMinute, long[] minutes, long[] durations,
+                          boolean animateDays, ClockKinematics.RevolutionPolicy revolutionPolicy) {
+        if (minutes.length == 0 || minutes.length != durations.length) {
+            throw new IllegalArgumentException("need one duration per time, got " + minutes.length
+                    + " times and " + durations.length + " durations");
+        }
+        int count = minutes.length;
+        handCount = hands.getHandCount();
+        this.startMinute = startMinute;
+        this.minutes = minutes.clone();
+        endTimes = new long[count];
+        startRotations = new float[count * handCount];
+        deltas = new float[count * handCount];
+        rotations = new float[handCount];
+
+        // doubles, so long scripts do not drift
+        double[] handRotations = new double[handCount];
+        for (int hand = 0; hand < handCount; hand++) {
+            handRotations[hand] = normalize(startMinute * hands.getDegreesPerMinute(hand) + hands.getOffsetDegrees(hand));
+        }
+        long previousMinute = startMinute;
+        long endTime = 0;
+        for (int i = 0; i < count; i++) {
+            if (durations[i] < 0) {
+                throw new IllegalArgumentException("negative duration " + durations[i] + " at " + i);
+            }
+            int minDiff = ClockKinematics.minutesBetween(previousMinute, minutes[i], animateDays);
+            for (int hand = 0; hand < handCount; hand++) {
+                double delta = ClockKinematics.limitRevolutions(minDiff * hands.getDegreesPerMinute(hand), revolutionPolicy);
+                startRotations[i * handCount + hand] = (float) handRotations[hand];
+                deltas[i * handCount + hand] = (float) delta;
+                handRotations[hand] = normalize(handRotations[hand] + delta);
+            }
+            endTime += durations[i];
+            endTimes[i] = endTime;
+            previousMinute = minutes[i];
+        }
+
+        System.arraycopy(startRotations, 0, rotations, 0, handCount);
+    }
+
+    /**
+     * Plays the script again from its start minute after the last step, until stopped.
+     */
+    public void setLooping(boolean looping) {
+        this.looping = looping;
+    }
+
+    public boolean isLooping() {
+        return looping;
+    }
+
+    /**
+     * Moves the hands to {@code playTime} millis into the timeline.
+     *
+     * @return false once a timeline that does not loop is over
+     */
+    public boolean seek(long playTime) {
+        long duration = getDuration();
+        if (playTime >= duration) {
+            if (!looping || duration == 0) {
+                step = endTimes.length - 1;
+                setProgress(1f);
+                return false;
+            }
+            playTime %= duration;
+        }
+        if (playTime < 0) {
+            playTime = 0;
+        }
+
+        // playing forwards, the step is the current one or close after it
+        if (playTime < getStartTime(step)) {
+            step = 0;
+        }
+        while (playTime >= endTimes[step]) {
+            step++;
+        }
+
+        long stepStart = getStartTime(step);
+        setProgress(ClockKinematics.interpolate((playTime - stepStart) / (float) (endTimes[step] - stepStart)));
+        return true;
+    }
+
+    private void setProgress(float fraction) {
+        int base = step * handCount;
+        for (int hand = 0; hand < handCount; hand++) {
+            rotations[hand] = startRotations[base + hand] + deltas[base + hand] * fraction;
+        }
+    }
+
+    private long getStartTime(int step) {
+        return step == 0 ? 0 : endTimes[step - 1];
+    }
+
+    private static double normalize(double rotation) {
+        double normalized = rotation % 360d;
+        return normalized < 0 ? normalized + 360d : normalized;
+    }
+
+    public int getHandCount() {
+        return handCount;
+    }
+
+    public long getStartMinute() {
+        return startMinute;
+    }
+
+    public int getStepCount() {
+        return minutes.length;
+    }
+
+    /**
+     * Total play time of one run through the steps.
+     */
+    public long getDuration() {
+        return endTimes[endTimes.length - 1];
+    }
+
+    /**
+     * Step of the last {@link #seek(long)}.
+     */
+    public int getStep() {
+        return step;
+    }
+
+    public float getRotation(int hand) {
+        return rotations[hand];
+    }
+
+    public float getTargetRotation(int hand) {
+        int index = step * handCount + hand;
+        return startRotations[index] + deltas[index];
+    }
+
+    public float getHourRotation() {
+        return rotations[ClockKinematics.HOUR_HAND];
+    }
+
+    public float getMinRotation() {
+        return rotations[ClockKinematics.MINUTE_HAND];
+    }
+
+    public float getTargetHourRotation() {
+        return getTargetRotation(ClockKinematics.HOUR_HAND);
+    }
+
+    public float getTargetMinRotation() {
+        return getTargetRotation(ClockKinematics.MINUTE_HAND);
+    }
+
+    /**
+     * Epoch minute the current step ends on.
+     */
+    public long getTargetMinute() {
+        return minutes[step];
+    }
+}
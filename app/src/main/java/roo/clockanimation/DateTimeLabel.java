@@ -0,0 +1,77 @@
+package roo.clockanimation;
+
+import java.text.DateFormatSymbols;
+import java.util.Locale;
+
+/**
+ * Writes "dd MMM HH:mm" labels for epoch minutes into a reused char buffer, with month names and
+ * two digit fields taken from tables built once, so updating a label allocates nothing.
+ */
+public final class DateTimeLabel {
+
+    private static final char[] DIGIT_TENS = new char[100];
+    private static final char[] DIGIT_ONES = new char[100];
+
+    static {
+        for (int i = 0; i < 100; i++) {
+            DIGIT_TENS[i] = (char) ('0' + i / 10);
+            DIGIT_ONES[i] = (char) ('0' + i % 10);
+        }
+    }
+
+    private final char[][] months = new char[12][];
+    private final char[] chars;
+
+    public DateTimeLabel(Locale locale) {
+        String[] shortMonths = DateFormatSymbols.getInstance(locale).getShortMonths();
+        int maxLength = 0;
+        for (int i = 0; i < months.length; i++) {
+            months[i] = shortMonths[i].toCharArray();
+            maxLength = Math.max(maxLength, months[i].length);
+        }
+        // "dd " + month + " HH:mm"
+        chars = new char[3 + maxLength + 6];
+    }
+
+    /**
+     * Formats the given epoch minute into {@link #getChars()}.
+     *
+     * @return the length of the label
+     */
+    public int format(long epochMinute) {
+        int minuteOfDay = ClockKinematics.minuteOfDay(epochMinute);
+        long epochDay = (epochMinute - minuteOfDay) / ClockKinematics.MINUTES_PER_DAY;
+
+        // civil date from days, the inverse of ClockKinematics.epochDay
+        long z = epochDay + 719468;
+        long era = (z >= 0 ? z : z - 146096) / 146097;
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long monthIndex = (5 * dayOfYear + 2) / 153;
+        int dayOfMonth = (int) (dayOfYear - (153 * monthIndex + 2) / 5 + 1);
+        int month = (int) (monthIndex < 10 ? monthIndex + 3 : monthIndex - 9);
+
+        int length = 0;
+        length = putTwoDigits(length, dayOfMonth);
+        chars[length++] = ' ';
+        char[] monthName = months[month - 1];
+        System.arraycopy(monthName, 0, chars, length, monthName.length);
+        length += monthName.length;
+        chars[length++] = ' ';
+        length = putTwoDigits(length, minuteOfDay / 60);
+        chars[length++] = ':';
+        length = putTwoDigits(length, minuteOfDay % 60);
+        return length;
+    }
+
+    public char[] getChars() {
+        return chars;
+    }
+
+    private int putTwoDigits(int index, int value) {
+        chars[index] = DIGIT_TENS[value];
+        chars[index + 1] = DIGIT_ONES[value];
+        return index + 2;
+    }
+}
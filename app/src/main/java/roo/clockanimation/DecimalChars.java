@@ -0,0 +1,40 @@
+package roo.clockanimation;
+
+/**
+ * Writes ints as decimal digits into a reused char buffer, so a field showing a number can be
+ * updated without building a String.
+ */
+public final class DecimalChars {
+
+    /**
+     * Enough for any int, {@code "-2147483648"}.
+     */
+    public static final int MAX_LENGTH = 11;
+
+    private DecimalChars() {
+    }
+
+    /**
+     * Writes {@code value} from the start of {@code chars}.
+     *
+     * @return the number of chars written
+     */
+    public static int toChars(int value, char[] chars) {
+        long remaining = Math.abs((long) value);
+        int length = 0;
+        do {
+            chars[length++] = (char) ('0' + remaining % 10);
+            remaining /= 10;
+        } while (remaining > 0);
+        if (value < 0) {
+            chars[length++] = '-';
+        }
+        // digits were written least significant first
+        for (int i = 0, j = length - 1; i < j; i++, j--) {
+            char c = chars[i];
+            chars[i] = chars[j];
+            chars[j] = c;
+        }
+        return length;
+    }
+}
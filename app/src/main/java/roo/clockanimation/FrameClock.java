@@ -0,0 +1,17 @@
+package roo.clockanimation;
+
+/**
+ * Source of frame callbacks: the display's {@code Choreographer} on a device, or a
+ * {@link ManualFrameClock} that a test steps by hand. A posted callback runs once, on the next
+ * frame.
+ */
+public interface FrameClock {
+
+    interface FrameCallback {
+        void doFrame(long frameTimeNanos);
+    }
+
+    void postFrameCallback(FrameCallback callback);
+
+    void removeFrameCallback(FrameCallback callback);
+}
@@ -10,22 +10,21 @@ import android.view.View.OnClickListener;
 import android.widget.ImageView;
 import android.widget.TextView;
 
-import org.joda.time.DateTimeZone;
-import org.joda.time.LocalDateTime;
-import org.joda.time.format.DateTimeFormat;
-import org.joda.time.format.DateTimeFormatter;
-
 import java.util.Locale;
 
 import roo.clockanimation.PlusMinusLayout.OnChangeListener;
 
 public class MainActivity extends AppCompatActivity {
 
-    private static final DateTimeFormatter DTF = DateTimeFormat.forPattern("dd MMM HH:mm")
-            .withLocale(Locale.getDefault())
-            .withZone(DateTimeZone.getDefault());
+    private static final String STATE_NOW = "now";
+    private static final String STATE_CLOCK = "clock";
+
+    private long now;
+    private final DateTimeLabel label = new DateTimeLabel(Locale.getDefault());
 
-    private final LocalDateTime now = LocalDateTime.now().withTime(0, 0, 0, 0);
+    private ClockDrawable clockDrawable;
+    private PlusMinusLayout plusMinusLayout;
+    private TextView dateTimeView;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -33,19 +32,27 @@ public class MainActivity extends AppCompatActivity {
         setContentView(R.layout.activity_main);
         setSupportActionBar((Toolbar) findViewById(R.id.toolbar));
 
-        final ClockDrawable clockDrawable = new ClockDrawable(getResources());
+        clockDrawable = new ClockDrawable(getResources());
         clockDrawable.setAnimateDays(false);
         ImageView imageView = (ImageView) findViewById(R.id.image);
         imageView.setImageDrawable(clockDrawable);
+        if (savedInstanceState != null) {
+            // same day as before the configuration change, and the hands where they were; after
+            // the image view has set the drawable's visibility, so a transition is not put off
+            now = savedInstanceState.getLong(STATE_NOW);
+            clockDrawable.restoreState(savedInstanceState.getParcelable(STATE_CLOCK));
+        } else {
+            now = ClockKinematics.startOfDay(ClockKinematics.epochMinuteAt(TimeSource.SYSTEM.currentLocalMillis()));
+        }
 
-        final TextView dateTimeView = (TextView) findViewById(R.id.dateTime);
-        dateTimeView.setText(DTF.print(now));
+        dateTimeView = (TextView) findViewById(R.id.dateTime);
+        setLabel(dateTimeView, now);
 
-        final PlusMinusLayout plusMinusLayout = (PlusMinusLayout) findViewById(R.id.test);
+        plusMinusLayout = (PlusMinusLayout) findViewById(R.id.test);
         plusMinusLayout.setListener(new OnChangeListener() {
             @Override public void onChange(int days, int hours, int minutes) {
-                LocalDateTime current = now.plusDays(days).plusHours(hours).plusMinutes(minutes);
-                dateTimeView.setText(DTF.print(current));
+                long current = now + days * ClockKinematics.MINUTES_PER_DAY + hours * 60 + minutes;
+                setLabel(dateTimeView, current);
                 clockDrawable.start(current);
             }
         });
@@ -54,12 +61,33 @@ public class MainActivity extends AppCompatActivity {
         reset.setOnClickListener(new OnClickListener() {
             @Override public void onClick(View view) {
                 plusMinusLayout.reset();
-                dateTimeView.setText(DTF.print(now));
+                setLabel(dateTimeView, now);
             }
         });
 
     }
 
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        outState.putLong(STATE_NOW, now);
+        outState.putParcelable(STATE_CLOCK, clockDrawable.saveState());
+    }
+
+    @Override
+    protected void onRestoreInstanceState(Bundle savedInstanceState) {
+        // restores the plus/minus model, which the label follows
+        super.onRestoreInstanceState(savedInstanceState);
+        setLabel(dateTimeView, now + plusMinusLayout.getDays() * ClockKinematics.MINUTES_PER_DAY
+                + plusMinusLayout.getHours() * 60 + plusMinusLayout.getMinutes());
+    }
+
+    private void setLabel(TextView textView, long epochMinute) {
+        // the char array overload lets the TextView reuse its wrapper around our buffer
+        int length = label.format(epochMinute);
+        textView.setText(label.getChars(), 0, length);
+    }
+
     @Override
     public boolean onCreateOptionsMenu(Menu menu) {
         // Inflate the menu; this adds items to the action bar if it is present.
@@ -67,6 +95,13 @@ public class MainActivity extends AppCompatActivity {
         return true;
     }
 
+    @Override
+    public boolean onPrepareOptionsMenu(Menu menu) {
+        // the plus/minus buttons leave live mode and a restored clock may come back in it
+        menu.findItem(R.id.action_live).setChecked(clockDrawable.isLive());
+        return super.onPrepareOptionsMenu(menu);
+    }
+
     @Override
     public boolean onOptionsItemSelected(MenuItem item) {
         // Handle action bar item clicks here. The action bar will
@@ -75,6 +110,11 @@ public class MainActivity extends AppCompatActivity {
         int id = item.getItemId();
 
         //noinspection SimplifiableIfStatement
+        if (id == R.id.action_live) {
+            clockDrawable.setLive(!clockDrawable.isLive(), true);
+            item.setChecked(clockDrawable.isLive());
+            return true;
+        }
         if (id == R.id.action_settings) {
             return true;
         }
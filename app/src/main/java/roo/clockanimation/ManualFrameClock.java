@@ -0,0 +1,35 @@
+package roo.clockanimation;
+
+/**
+ * Frame clock for tests: time only moves, and frames only happen, when {@link #step(long)} is
+ * called.
+ */
+public class ManualFrameClock extends QueuedFrameClock {
+
+    private long frameTimeNanos;
+
+    public ManualFrameClock(long startTimeNanos) {
+        frameTimeNanos = startTimeNanos;
+    }
+
+    /**
+     * Advances time by {@code nanos} and runs the callbacks posted for the next frame.
+     *
+     * @return false if no callback was waiting for a frame
+     */
+    public boolean step(long nanos) {
+        frameTimeNanos += nanos;
+        if (!hasPendingCallbacks()) {
+            return false;
+        }
+        dispatchFrame(frameTimeNanos);
+        return true;
+    }
+
+    public long getFrameTimeNanos() {
+        return frameTimeNanos;
+    }
+
+    @Override protected void scheduleFrame() {
+    }
+}
@@ -4,10 +4,44 @@ import android.app.Application;
 
 import net.danlew.android.joda.JodaTimeAndroid;
 
+import java.util.concurrent.CountDownLatch;
+
 public class MyApp extends Application {
+
+    private static final CountDownLatch timeZonesReady = new CountDownLatch(1);
+
     @Override
     public void onCreate() {
         super.onCreate();
-        JodaTimeAndroid.init(this);
+        StartupTrace.applicationCreated();
+
+        // the clock draws with local fields only, zone data is warmed up off the main thread
+        new Thread(new Runnable() {
+            @Override public void run() {
+                JodaTimeAndroid.init(MyApp.this);
+                timeZonesReady.countDown();
+                StartupTrace.timeZonesReady();
+            }
+        }, "TimeZoneInit").start();
+    }
+
+    /**
+     * Blocks until the Joda time zone provider is set up. Anything that touches
+     * {@code DateTimeZone} has to call this first, e.g. {@link WorldClocks#createZones}. The
+     * clock itself only uses local fields and never waits.
+     */
+    public static void awaitTimeZones() {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                timeZonesReady.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
     }
-}
\ No newline at end of file
+}
@@ -2,30 +2,53 @@ package roo.clockanimation;
 
 import android.content.Context;
 import android.os.Build.VERSION_CODES;
+import android.os.SystemClock;
 import android.support.annotation.RequiresApi;
 import android.util.AttributeSet;
 import android.view.Gravity;
 import android.view.LayoutInflater;
+import android.view.MotionEvent;
 import android.view.View;
 import android.view.View.OnClickListener;
+import android.view.View.OnLongClickListener;
+import android.view.View.OnTouchListener;
 import android.widget.LinearLayout;
 
 /**
  * Created by evelina on 15/07/2016.
  */
 
-public class PlusMinusButton extends LinearLayout implements OnClickListener {
+public class PlusMinusButton extends LinearLayout implements OnClickListener, OnLongClickListener, OnTouchListener {
 
+    /**
+     * {@code step} is 1 for a click and grows the longer a button is held down.
+     */
     public interface OnPlusMinusClickListener {
-        void onPlusClicked(View view);
+        void onPlusClicked(View view, int step);
 
-        void onMinusClicked(View view);
+        void onMinusClicked(View view, int step);
     }
 
+    private static final long REPEAT_INTERVAL = 50;
+
     private View plusButton;
     private View minusButton;
     private OnPlusMinusClickListener listener;
 
+    private View repeatingButton;
+    private long repeatStartTime;
+
+    private final Runnable repeater = new Runnable() {
+        @Override public void run() {
+            if (repeatingButton == null) {
+                return;
+            }
+            long heldTime = SystemClock.uptimeMillis() - repeatStartTime;
+            dispatch(repeatingButton, PlusMinusModel.stepFor(heldTime));
+            postDelayed(this, REPEAT_INTERVAL);
+        }
+    };
+
     public PlusMinusButton(Context context, AttributeSet attrs) {
         super(context, attrs);
         init(context, attrs);
@@ -52,6 +75,10 @@ public class PlusMinusButton extends LinearLayout implements OnClickListener {
 
         plusButton.setOnClickListener(this);
         minusButton.setOnClickListener(this);
+        plusButton.setOnLongClickListener(this);
+        minusButton.setOnLongClickListener(this);
+        plusButton.setOnTouchListener(this);
+        minusButton.setOnTouchListener(this);
     }
 
     public void setListener(OnPlusMinusClickListener listener) {
@@ -60,11 +87,42 @@ public class PlusMinusButton extends LinearLayout implements OnClickListener {
 
 
     @Override public void onClick(View view) {
+        dispatch(view, 1);
+    }
+
+    @Override public boolean onLongClick(View view) {
+        // auto-repeat while held, consuming the long click so no extra click follows
+        stopRepeating();
+        repeatingButton = view;
+        repeatStartTime = SystemClock.uptimeMillis();
+        repeater.run();
+        return true;
+    }
+
+    @Override public boolean onTouch(View view, MotionEvent event) {
+        int action = event.getActionMasked();
+        if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
+            stopRepeating();
+        }
+        return false;
+    }
+
+    @Override protected void onDetachedFromWindow() {
+        stopRepeating();
+        super.onDetachedFromWindow();
+    }
+
+    private void stopRepeating() {
+        repeatingButton = null;
+        removeCallbacks(repeater);
+    }
+
+    private void dispatch(View view, int step) {
         if (listener != null) {
             if (view == plusButton) {
-                listener.onPlusClicked(this);
+                listener.onPlusClicked(this, step);
             } else if (view == minusButton) {
-                listener.onMinusClicked(this);
+                listener.onMinusClicked(this, step);
             }
         }
     }
@@ -2,6 +2,8 @@ package roo.clockanimation;
 
 import android.content.Context;
 import android.os.Build.VERSION_CODES;
+import android.os.Parcel;
+import android.os.Parcelable;
 import android.support.annotation.RequiresApi;
 import android.text.TextUtils;
 import android.util.AttributeSet;
@@ -36,6 +38,19 @@ public class PlusMinusLayout extends LinearLayout implements OnPlusMinusClickLis
 
     private OnChangeListener listener;
 
+    // the source of truth, the EditTexts only show it; button steps wait in it for the next
+    // frame, so a held button notifies at most once per frame
+    private final PlusMinusModel model = new PlusMinusModel();
+
+    private final char[] digits = new char[DecimalChars.MAX_LENGTH];
+
+    private final Runnable applyPendingChange = new Runnable() {
+        @Override public void run() {
+            renderChanged(model.applyPending());
+            notifyChangeListener();
+        }
+    };
+
     public PlusMinusLayout(Context context, AttributeSet attrs) {
         super(context, attrs);
         init(context, attrs);
@@ -78,43 +93,109 @@ public class PlusMinusLayout extends LinearLayout implements OnPlusMinusClickLis
         plusMinusMinutes.setListener(this);
     }
 
-    @Override public void onPlusClicked(View view) {
-        if (view == plusMinusDays) {
-            increase(dayText);
-        } else if (view == plusMinusHours) {
-            increase(hourText);
-        } else if (view == plusMinusMinutes) {
-            increase(minuteText);
-        }
+    @Override public void onPlusClicked(View view, int step) {
+        changeOnNextFrame(view, step);
+    }
+
+    @Override public void onMinusClicked(View view, int step) {
+        changeOnNextFrame(view, -step);
     }
 
-    @Override public void onMinusClicked(View view) {
+    private void changeOnNextFrame(View view, int delta) {
+        readFocusedValue();
+        int field;
         if (view == plusMinusDays) {
-            decrease(dayText);
+            field = PlusMinusModel.DAYS;
         } else if (view == plusMinusHours) {
-            decrease(hourText);
+            field = PlusMinusModel.HOURS;
         } else if (view == plusMinusMinutes) {
-            decrease(minuteText);
+            field = PlusMinusModel.MINUTES;
+        } else {
+            return;
+        }
+        if (model.queue(field, delta)) {
+            postOnAnimation(applyPendingChange);
         }
     }
 
     public int getDays() {
-        return parseValue(dayText);
+        return model.get(PlusMinusModel.DAYS);
     }
 
     public int getHours() {
-        return parseValue(hourText);
+        return model.get(PlusMinusModel.HOURS);
     }
 
     public int getMinutes() {
-        return parseValue(minuteText);
+        return model.get(PlusMinusModel.MINUTES);
     }
 
     public void setListener(OnChangeListener listener) {
         this.listener = listener;
     }
 
+    /**
+     * Adds the given deltas, re-renders only the fields that changed and notifies the listener
+     * once.
+     */
+    public void change(int deltaDays, int deltaHours, int deltaMinutes) {
+        int changed = add(PlusMinusModel.DAYS, deltaDays)
+                | add(PlusMinusModel.HOURS, deltaHours)
+                | add(PlusMinusModel.MINUTES, deltaMinutes);
+        renderChanged(changed);
+        notifyChangeListener();
+    }
+
+    private int add(int field, int delta) {
+        if (delta == 0) {
+            return 0;
+        }
+        model.set(field, model.get(field) + delta);
+        return 1 << field;
+    }
+
+    private void renderChanged(int changed) {
+        if ((changed & 1 << PlusMinusModel.DAYS) != 0) {
+            render(dayText, PlusMinusModel.DAYS);
+        }
+        if ((changed & 1 << PlusMinusModel.HOURS) != 0) {
+            render(hourText, PlusMinusModel.HOURS);
+        }
+        if ((changed & 1 << PlusMinusModel.MINUTES) != 0) {
+            render(minuteText, PlusMinusModel.MINUTES);
+        }
+    }
+
+    @Override protected Parcelable onSaveInstanceState() {
+        SavedState saved = new SavedState(super.onSaveInstanceState());
+        // steps still waiting for a frame are part of the model by now
+        saved.days = model.getWithPending(PlusMinusModel.DAYS);
+        saved.hours = model.getWithPending(PlusMinusModel.HOURS);
+        saved.minutes = model.getWithPending(PlusMinusModel.MINUTES);
+        return saved;
+    }
+
+    /**
+     * Takes the model back without notifying the listener, the clock restores its own state.
+     */
+    @Override protected void onRestoreInstanceState(Parcelable state) {
+        if (!(state instanceof SavedState)) {
+            super.onRestoreInstanceState(state);
+            return;
+        }
+        SavedState saved = (SavedState) state;
+        super.onRestoreInstanceState(saved.getSuperState());
+        model.set(PlusMinusModel.DAYS, saved.days);
+        model.set(PlusMinusModel.HOURS, saved.hours);
+        model.set(PlusMinusModel.MINUTES, saved.minutes);
+        render(dayText, PlusMinusModel.DAYS);
+        render(hourText, PlusMinusModel.HOURS);
+        render(minuteText, PlusMinusModel.MINUTES);
+    }
+
     public void reset() {
+        removeCallbacks(applyPendingChange);
+        model.clear();
         reset(dayText);
         reset(hourText);
         reset(minuteText);
@@ -122,7 +203,7 @@ public class PlusMinusLayout extends LinearLayout implements OnPlusMinusClickLis
     }
 
     private void init(EditText editText) {
-        setText(editText, "0");
+        render(editText, getField(editText));
         editText.setOnFocusChangeListener(new CustomFocusListener(editText));
     }
 
@@ -137,18 +218,44 @@ public class PlusMinusLayout extends LinearLayout implements OnPlusMinusClickLis
         }
     }
 
-    private void increase(EditText editText) {
-        setText(editText, change(editText, 1));
-        notifyChangeListener();
+    private int getField(EditText editText) {
+        if (editText == dayText) {
+            return PlusMinusModel.DAYS;
+        } else if (editText == hourText) {
+            return PlusMinusModel.HOURS;
+        }
+        return PlusMinusModel.MINUTES;
     }
 
-    private void decrease(EditText editText) {
-        setText(editText, change(editText, -1));
-        notifyChangeListener();
+    private int getValue(EditText editText) {
+        return model.get(getField(editText));
+    }
+
+    /**
+     * Takes a value typed by the user into the model.
+     */
+    private void readValue(EditText editText) {
+        model.set(getField(editText), parseValue(editText));
+    }
+
+    /**
+     * Takes the text of the focused field into the model. The buttons don't take the focus, so
+     * the field's focus listener has not read it yet.
+     */
+    private void readFocusedValue() {
+        if (dayText.hasFocus()) {
+            readValue(dayText);
+        } else if (hourText.hasFocus()) {
+            readValue(hourText);
+        } else if (minuteText.hasFocus()) {
+            readValue(minuteText);
+        }
     }
 
-    private static String change(EditText editText, int value) {
-        return String.valueOf(parseValue(editText) + value);
+    private void render(EditText editText, int field) {
+        int length = model.toChars(field, digits);
+        editText.setText(digits, 0, length);
+        editText.setSelection(length);
     }
 
     private static int parseValue(EditText editText) {
@@ -160,19 +267,49 @@ public class PlusMinusLayout extends LinearLayout implements OnPlusMinusClickLis
     }
 
     private static boolean isEmpty(EditText editText) {
-        return TextUtils.isEmpty(getText(editText));
-    }
-
-    private static boolean isZero(EditText editText) {
-        return "0".equals(getText(editText));
+        return TextUtils.isEmpty(editText.getText());
     }
 
     private static void setText(EditText editText, String text) {
         editText.setText(text);
-        editText.setSelection(getText(editText).length());
+        editText.setSelection(text.length());
     }
 
 
+    static class SavedState extends BaseSavedState {
+        int days;
+        int hours;
+        int minutes;
+
+        SavedState(Parcelable superState) {
+            super(superState);
+        }
+
+        SavedState(Parcel in) {
+            super(in);
+            days = in.readInt();
+            hours = in.readInt();
+            minutes = in.readInt();
+        }
+
+        @Override public void writeToParcel(Parcel out, int flags) {
+            super.writeToParcel(out, flags);
+            out.writeInt(days);
+            out.writeInt(hours);
+            out.writeInt(minutes);
+        }
+
+        public static final Creator<SavedState> CREATOR = new Creator<SavedState>() {
+            @Override public SavedState createFromParcel(Parcel in) {
+                return new SavedState(in);
+            }
+
+            @Override public SavedState[] newArray(int size) {
+                return new SavedState[size];
+            }
+        };
+    }
+
     private class CustomFocusListener implements OnFocusChangeListener {
         private final EditText editText;
 
@@ -185,13 +322,14 @@ public class PlusMinusLayout extends LinearLayout implements OnPlusMinusClickLis
                 return;
             }
 
-            if (hasFocus && isZero(editText)) {
+            if (hasFocus && getValue(editText) == 0) {
                 setText(editText, "");
 
             } else if (!hasFocus) {
                 if (isEmpty(editText)) {
                     setText(editText, "0");
                 }
+                readValue(editText);
                 notifyChangeListener();
             }
         }
@@ -0,0 +1,95 @@
+package roo.clockanimation;
+
+/**
+ * The days, hours and minutes behind {@link PlusMinusLayout}, and the steps of held
+ * {@link PlusMinusButton}s. Button steps are queued and added at once, so a held button changes
+ * the model at most once per frame.
+ */
+public final class PlusMinusModel {
+
+    public static final int DAYS = 0;
+    public static final int HOURS = 1;
+    public static final int MINUTES = 2;
+
+    private static final int FIELD_COUNT = 3;
+
+    // the step grows every time a button has been held for this long
+    private static final long STEP_UP_INTERVAL = 1000;
+    private static final int[] STEPS = {1, 2, 5, 10, 30};
+
+    private final int[] values = new int[FIELD_COUNT];
+    private final int[] pending = new int[FIELD_COUNT];
+    private boolean hasPending;
+
+    /**
+     * The step of a button held down for {@code heldMillis}, 1 for a click.
+     */
+    public static int stepFor(long heldMillis) {
+        return STEPS[(int) Math.min(heldMillis / STEP_UP_INTERVAL, STEPS.length - 1)];
+    }
+
+    /**
+     * Queues {@code delta} for {@code field} until {@link #applyPending()}.
+     *
+     * @return true for the first step queued since the last apply, the caller schedules the apply
+     */
+    public boolean queue(int field, int delta) {
+        pending[field] += delta;
+        if (hasPending) {
+            return false;
+        }
+        hasPending = true;
+        return true;
+    }
+
+    /**
+     * Adds the queued steps.
+     *
+     * @return a bit per field that changed, {@code 1 << field}
+     */
+    public int applyPending() {
+        hasPending = false;
+        int changed = 0;
+        for (int i = 0; i < FIELD_COUNT; i++) {
+            if (pending[i] != 0) {
+                values[i] += pending[i];
+                pending[i] = 0;
+                changed |= 1 << i;
+            }
+        }
+        return changed;
+    }
+
+    public int get(int field) {
+        return values[field];
+    }
+
+    /**
+     * The value once the queued steps are applied.
+     */
+    public int getWithPending(int field) {
+        return values[field] + pending[field];
+    }
+
+    public void set(int field, int value) {
+        values[field] = value;
+    }
+
+    /**
+     * Sets every field to 0 and drops the queued steps.
+     */
+    public void clear() {
+        for (int i = 0; i < FIELD_COUNT; i++) {
+            values[i] = 0;
+            pending[i] = 0;
+        }
+        hasPending = false;
+    }
+
+    /**
+     * Writes {@code field} as decimal digits, see {@link DecimalChars#toChars(int, char[])}.
+     */
+    public int toChars(int field, char[] chars) {
+        return DecimalChars.toChars(values[field], chars);
+    }
+}
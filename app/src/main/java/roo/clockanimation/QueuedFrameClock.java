@@ -0,0 +1,43 @@
+package roo.clockanimation;
+
+import java.util.ArrayList;
+
+/**
+ * Keeps the callbacks posted for the next frame and runs them when the frame comes. Callbacks
+ * posted while a frame is dispatched run on the frame after.
+ */
+public abstract class QueuedFrameClock implements FrameClock {
+
+    private ArrayList<FrameCallback> pending = new ArrayList<>();
+    private ArrayList<FrameCallback> dispatching = new ArrayList<>();
+
+    @Override public void postFrameCallback(FrameCallback callback) {
+        if (pending.isEmpty()) {
+            scheduleFrame();
+        }
+        pending.add(callback);
+    }
+
+    @Override public void removeFrameCallback(FrameCallback callback) {
+        pending.remove(callback);
+    }
+
+    /**
+     * Asks for {@link #dispatchFrame(long)} to be called on the next frame.
+     */
+    protected abstract void scheduleFrame();
+
+    protected void dispatchFrame(long frameTimeNanos) {
+        ArrayList<FrameCallback> callbacks = pending;
+        pending = dispatching;
+        dispatching = callbacks;
+        for (int i = 0, size = callbacks.size(); i < size; i++) {
+            callbacks.get(i).doFrame(frameTimeNanos);
+        }
+        callbacks.clear();
+    }
+
+    protected boolean hasPendingCallbacks() {
+        return !pending.isEmpty();
+    }
+}
@@ -0,0 +1,70 @@
+package roo.clockanimation;
+
+import android.os.SystemClock;
+
+import static android.util.Log.i;
+import static android.util.Log.w;
+
+/**
+ * Cold start instrumentation: time from {@code Application.onCreate} to the first
+ * {@link ClockDrawable#draw} and to time zone data being ready, logged once and checked against a
+ * budget.
+ */
+public final class StartupTrace {
+
+    private static final String TAG = "Startup";
+
+    public static final long DEFAULT_BUDGET_MILLIS = 400;
+
+    private static long budgetMillis = DEFAULT_BUDGET_MILLIS;
+
+    private static volatile long applicationCreateTime = -1;
+    private static volatile long timeZonesReadyTime = -1;
+    private static volatile long firstClockDrawTime = -1;
+
+    private StartupTrace() {
+    }
+
+    public static void setBudgetMillis(long budgetMillis) {
+        StartupTrace.budgetMillis = budgetMillis;
+    }
+
+    static void applicationCreated() {
+        applicationCreateTime = SystemClock.uptimeMillis();
+    }
+
+    static void timeZonesReady() {
+        timeZonesReadyTime = SystemClock.uptimeMillis();
+        if (applicationCreateTime >= 0) {
+            i(TAG, "time zones ready after " + getTimeZonesReadyMillis() + "ms");
+        }
+    }
+
+    static void clockDrawn() {
+        if (firstClockDrawTime >= 0 || applicationCreateTime < 0) {
+            return;
+        }
+        firstClockDrawTime = SystemClock.uptimeMillis();
+
+        long firstDrawMillis = getFirstClockDrawMillis();
+        if (firstDrawMillis > budgetMillis) {
+            w(TAG, "first clock frame after " + firstDrawMillis + "ms, over the " + budgetMillis + "ms budget");
+        } else {
+            i(TAG, "first clock frame after " + firstDrawMillis + "ms");
+        }
+    }
+
+    /**
+     * @return millis from Application create to the first clock draw, or -1 if not drawn yet
+     */
+    public static long getFirstClockDrawMillis() {
+        return firstClockDrawTime < 0 ? -1 : firstClockDrawTime - applicationCreateTime;
+    }
+
+    /**
+     * @return millis from Application create to time zone data being loaded, or -1 if not yet
+     */
+    public static long getTimeZonesReadyMillis() {
+        return timeZonesReadyTime < 0 ? -1 : timeZonesReadyTime - applicationCreateTime;
+    }
+}
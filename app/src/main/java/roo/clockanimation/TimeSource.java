@@ -0,0 +1,25 @@
+package roo.clockanimation;
+
+import java.util.TimeZone;
+
+/**
+ * Where the clock gets the current local time from, so tests can pin it.
+ */
+public interface TimeSource {
+
+    /**
+     * @return the current local time in millis since 1970-01-01T00:00 local time, see
+     * {@link ClockKinematics#epochMinuteAt(long)}
+     */
+    long currentLocalMillis();
+
+    /**
+     * The system clock in the default time zone, which needs no Joda time zone data.
+     */
+    TimeSource SYSTEM = new TimeSource() {
+        @Override public long currentLocalMillis() {
+            long now = System.currentTimeMillis();
+            return now + TimeZone.getDefault().getOffset(now);
+        }
+    };
+}
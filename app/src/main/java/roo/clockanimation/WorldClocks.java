@@ -0,0 +1,61 @@
+package roo.clockanimation;
+
+import org.joda.time.DateTimeZone;
+
+/**
+ * Clocks that show the same instant in different zones, one per zone of a
+ * {@link ZoneOffsetTable}, and move together.
+ */
+public class WorldClocks {
+
+    private final ZoneOffsetTable zones;
+    private final ClockDrawable[] clocks;
+    private final long[] epochMinutes;
+
+    /**
+     * @param clocks one clock per zone of {@code zones}, in the same order
+     */
+    public WorldClocks(ZoneOffsetTable zones, ClockDrawable[] clocks) {
+        if (clocks.length != zones.getZoneCount()) {
+            throw new IllegalArgumentException("need one clock per zone, got " + clocks.length
+                    + " clocks for " + zones.getZoneCount() + " zones");
+        }
+        this.zones = zones;
+        this.clocks = clocks;
+        epochMinutes = new long[clocks.length];
+    }
+
+    /**
+     * Builds the offset table for the given zone ids once the app's zone data is loaded, see
+     * {@link MyApp#awaitTimeZones()}. Blocks until then if called early during start-up.
+     *
+     * @param fromMillis start of the window, UTC millis
+     * @param toMillis end of the window, UTC millis
+     */
+    public static ZoneOffsetTable createZones(String[] zoneIds, long fromMillis, long toMillis) {
+        MyApp.awaitTimeZones();
+        DateTimeZone[] zones = new DateTimeZone[zoneIds.length];
+        for (int i = 0; i < zoneIds.length; i++) {
+            zones[i] = DateTimeZone.forID(zoneIds[i]);
+        }
+        return new ZoneOffsetTable(zones, fromMillis, toMillis);
+    }
+
+    /**
+     * Starts every clock's transition to the local time of its zone at {@code instantMillis}.
+     */
+    public void start(long instantMillis) {
+        zones.localEpochMinutes(instantMillis, epochMinutes);
+        for (int i = 0; i < clocks.length; i++) {
+            clocks[i].start(epochMinutes[i]);
+        }
+    }
+
+    public ClockDrawable getClock(int zone) {
+        return clocks[zone];
+    }
+
+    public ZoneOffsetTable getZones() {
+        return zones;
+    }
+}
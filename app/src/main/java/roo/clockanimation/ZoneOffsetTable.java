@@ -0,0 +1,129 @@
+package roo.clockanimation;
+
+import org.joda.time.DateTimeZone;
+
+/**
+ * UTC offsets of a set of time zones over a window of time, worked out once from Joda's zone data.
+ * <p>
+ * Every zone's offset changes (DST and rule changes) inside the window are kept in flat primitive
+ * arrays. The local epoch minute of an instant in a zone is then a binary search over that zone's
+ * few changes and an add, with no zone lookup and no allocation, so one instant can be fanned out
+ * to hundreds of zone clocks on every update.
+ * <p>
+ * In the app, zone data is loaded off the main thread at start-up; build tables through
+ * {@code WorldClocks.createZones}, which waits for it, rather than from zones looked up directly.
+ */
+public final class ZoneOffsetTable {
+
+    private final String[] zoneIds;
+    private final long fromMillis;
+    private final long toMillis;
+
+    // changes of zone z are at [zoneStarts[z], zoneStarts[z + 1]); the first one is fromMillis
+    private final int[] zoneStarts;
+    private final long[] changeMillis;
+    private final int[] offsetMillis;
+
+    /**
+     * @param fromMillis start of the window, UTC millis
+     * @param toMillis end of the window, UTC millis
+     */
+    public ZoneOffsetTable(DateTimeZone[] zones, long fromMillis, long toMillis) {
+        if (toMillis < fromMillis) {
+            throw new IllegalArgumentException("window ends before it starts: " + fromMillis + " to " + toMillis);
+        }
+        this.fromMillis = fromMillis;
+        this.toMillis = toMillis;
+        zoneIds = new String[zones.length];
+        zoneStarts = new int[zones.length + 1];
+
+        int count = 0;
+        for (int z = 0; z < zones.length; z++) {
+            zoneIds[z] = zones[z].getID();
+            count += countChanges(zones[z], fromMillis, toMillis);
+        }
+        changeMillis = new long[count];
+        offsetMillis = new int[count];
+
+        int index = 0;
+        for (int z = 0; z < zones.length; z++) {
+            zoneStarts[z] = index;
+            DateTimeZone zone = zones[z];
+            long millis = fromMillis;
+            while (true) {
+                changeMillis[index] = millis;
+                offsetMillis[index] = zone.getOffset(millis);
+                index++;
+                long next = zone.nextTransition(millis);
+                if (next <= millis || next >= toMillis) {
+                    break;
+                }
+                millis = next;
+            }
+        }
+        zoneStarts[zones.length] = index;
+    }
+
+    private static int countChanges(DateTimeZone zone, long fromMillis, long toMillis) {
+        int count = 1;
+        long millis = fromMillis;
+        while (true) {
+            long next = zone.nextTransition(millis);
+            if (next <= millis || next >= toMillis) {
+                return count;
+            }
+            count++;
+            millis = next;
+        }
+    }
+
+    public int getZoneCount() {
+        return zoneIds.length;
+    }
+
+    public String getZoneId(int zone) {
+        return zoneIds[zone];
+    }
+
+    /**
+     * @return whether offsets at {@code instantMillis} are known; outside the window the offset
+     * nearest in time is used
+     */
+    public boolean covers(long instantMillis) {
+        return instantMillis >= fromMillis && instantMillis < toMillis;
+    }
+
+    /**
+     * Offset of a zone from UTC at an instant, in millis.
+     */
+    public int getOffsetMillis(int zone, long instantMillis) {
+        int low = zoneStarts[zone];
+        int high = zoneStarts[zone + 1] - 1;
+        // the last change at or before the instant, or the first one
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (changeMillis[mid] <= instantMillis) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return offsetMillis[low];
+    }
+
+    /**
+     * Local time of a zone at an instant as an epoch minute, see {@link ClockKinematics}.
+     */
+    public long localEpochMinute(int zone, long instantMillis) {
+        return ClockKinematics.epochMinuteAt(instantMillis + getOffsetMillis(zone, instantMillis));
+    }
+
+    /**
+     * Fills {@code epochMinutes} with the local time of every zone at an instant.
+     */
+    public void localEpochMinutes(long instantMillis, long[] epochMinutes) {
+        for (int zone = 0; zone < zoneIds.length; zone++) {
+            epochMinutes[zone] = localEpochMinute(zone, instantMillis);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package roo.clockanimation;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class AngleTableTest {
+
+    @Test
+    public void sinAndCos_matchMath() throws Exception {
+        for (float degrees = -1000f; degrees < 1000f; degrees += 0.37f) {
+            double radians = Math.toRadians(degrees);
+            assertEquals(Math.sin(radians), AngleTable.sin(degrees), 1e-5);
+            assertEquals(Math.cos(radians), AngleTable.cos(degrees), 1e-5);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package roo.clockanimation;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+public class ClockFrameSteppingTest {
+
+    private static final float DELTA = 0.001f;
+    private static final long FRAME_NANOS = 16666667;
+
+    private static final long JULY_15_2016 = ClockKinematics.epochMinute(2016, 7, 15, 0);
+
+    private static final TimeSource FIXED_TIME = new TimeSource() {
+        @Override public long currentLocalMillis() {
+            return (JULY_15_2016 + 10 * 60 + 42) * 60000 + 17500;
+        }
+    };
+
+    private ManualFrameClock frameClock;
+    private ClockTicker ticker;
+    private SteppedClock clock;
+
+    @Before
+    public void setUp() throws Exception {
+        frameClock = new ManualFrameClock(1000000000L);
+        ticker = new ClockTicker(frameClock);
+        clock = new SteppedClock();
+    }
+
+    @Test
+    public void handsStartAtMidnightOfTimeSourceDay() throws Exception {
+        assertEquals(JULY_15_2016, clock.kinematics.getPreviousMinute());
+        assertEquals(0f, clock.kinematics.getCurrentHourRotation(), 0f);
+        assertEquals(0f, clock.kinematics.getCurrentMinRotation(), 0f);
+    }
+
+    @Test
+    public void transition_followsInterpolatorFrameByFrame() throws Exception {
+        clock.start(JULY_15_2016 + 60);
+
+        int frames = 0;
+        while (frameClock.step(FRAME_NANOS)) {
+            frames++;
+            long playTime = (frames - 1) * FRAME_NANOS / 1000000;
+            if (clock.isRegistered()) {
+                float fraction = ClockKinematics.interpolate(playTime / (float) ClockKinematics.DEFAULT_DURATION);
+                assertEquals(30f * fraction, clock.hourRotations[frames - 1], DELTA);
+                assertEquals(360f * fraction, clock.minRotations[frames - 1], DELTA * 12);
+            }
+        }
+
+        // first frame is play time 0, the one at or past 500ms lands on the target
+        assertEquals(31, frames);
+        assertEquals(frames, clock.invalidations);
+        assertEquals(30f, clock.kinematics.getCurrentHourRotation(), 0f);
+        assertEquals(0f, clock.kinematics.getCurrentMinRotation(), 0f);
+        assertEquals(0, ticker.getActiveCount());
+        assertFalse(frameClock.step(FRAME_NANOS));
+    }
+
+    @Test
+    public void minTipTravel_skipsFramesThatBarelyMove() throws Exception {
+        clock.painter.setSize(200, 200, 4f);
+        clock.frames.setMinTipTravel(3f);
+        clock.start(JULY_15_2016 + 60);
+
+        int frames = 0;
+        while (frameClock.step(FRAME_NANOS)) {
+            frames++;
+            assertEquals(frames, clock.frames.getSkippedFrameCount() + clock.invalidations);
+        }
+
+        // the slow ends of the transition are skipped, the landing frame is always drawn
+        assertTrue(clock.frames.getSkippedFrameCount() > 0);
+        assertTrue(clock.invalidations > 1);
+        assertEquals(clock.kinematics.getCurrentMinRotation(), clock.minRotations[clock.invalidations - 1], 0f);
+        assertEquals(0f, clock.kinematics.getCurrentMinRotation(), 0f);
+    }
+
+    @Test
+    public void timeline_isSeekedWithPlayTimeOffset() throws Exception {
+        ClockTimeline timeline = new ClockTimeline(clock.kinematics, new long[]{JULY_15_2016 + 60},
+                new long[]{400});
+        clock.frames.setTimeline(timeline);
+        clock.frames.setPlayTimeOffset(200);
+        clock.kinematics.begin();
+        ticker.start(clock);
+
+        frameClock.step(FRAME_NANOS);
+
+        assertEquals(200, clock.frames.getFramePlayTime());
+        assertEquals(timeline.getRotation(ClockKinematics.MINUTE_HAND), clock.kinematics.getCurrentMinRotation(), 0f);
+        while (frameClock.step(FRAME_NANOS)) {
+        }
+        assertEquals(30f, clock.kinematics.getCurrentHourRotation(), DELTA);
+    }
+
+    @Test
+    public void restart_startsPlayTimeOver() throws Exception {
+        clock.start(JULY_15_2016 + 60);
+        for (int i = 0; i < 10; i++) {
+            frameClock.step(FRAME_NANOS);
+        }
+        float interruptedAt = clock.kinematics.getCurrentMinRotation();
+
+        clock.start(JULY_15_2016 + 120);
+        frameClock.step(FRAME_NANOS);
+
+        assertEquals(0, clock.lastPlayTime);
+        assertEquals(interruptedAt, clock.kinematics.getCurrentMinRotation(), DELTA);
+    }
+
+    @Test
+    public void unregisteredClock_skipsFramesButKeepsPlayTime() throws Exception {
+        clock.start(JULY_15_2016 + 60);
+        frameClock.step(FRAME_NANOS);
+        frameClock.step(FRAME_NANOS);
+        ticker.unregister(clock);
+        int invalidations = clock.invalidations;
+
+        frameClock.step(FRAME_NANOS);
+        assertEquals(invalidations, clock.invalidations);
+        assertFalse(frameClock.step(FRAME_NANOS));
+
+        ticker.register(clock);
+        frameClock.step(FRAME_NANOS);
+
+        assertEquals(invalidations + 1, clock.invalidations);
+        assertEquals(4 * FRAME_NANOS / 1000000, clock.lastPlayTime);
+    }
+
+    @Test
+    public void steppedFrames_doNotAllocate() throws Exception {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+        long threadId = Thread.currentThread().getId();
+        // warm up, so class loading and the callback lists growing are not counted
+        clock.start(JULY_15_2016 + 60);
+        while (frameClock.step(FRAME_NANOS)) {
+        }
+
+        long before = threads.getThreadAllocatedBytes(threadId);
+        clock.start(JULY_15_2016 + 120);
+        int frames = 0;
+        while (frameClock.step(FRAME_NANOS)) {
+            frames++;
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue(frames > 0);
+        // the allocation counter itself may allocate a little, but nothing per frame
+        assertTrue("allocated " + allocated + " bytes over " + frames + " frames", allocated < 1024);
+    }
+
+    /**
+     * A {@link ClockFrameStepper} on the ticker, the way {@link ClockDrawable} drives it, recording
+     * the hands at every invalidation instead of drawing them.
+     */
+    private class SteppedClock extends ClockTicker.Client {
+        final ClockPainter painter = new ClockPainter();
+        final ClockFrameStepper frames;
+        final ClockKinematics kinematics;
+        final float[] hourRotations = new float[64];
+        final float[] minRotations = new float[64];
+        int invalidations;
+        long lastPlayTime = -1;
+
+        SteppedClock() {
+            frames = new ClockFrameStepper(FIXED_TIME, painter) {
+                @Override protected void invalidateHands() {
+                    if (invalidations < hourRotations.length) {
+                        hourRotations[invalidations] = kinematics.getCurrentHourRotation();
+                        minRotations[invalidations] = kinematics.getCurrentMinRotation();
+                    }
+                    invalidations++;
+                    // drawn straight away
+                    markDrawn();
+                }
+            };
+            kinematics = frames.getKinematics();
+        }
+
+        void start(long epochMinute) {
+            frames.startTransition(epochMinute, ClockKinematics.DEFAULT_DURATION);
+            ticker.start(this);
+        }
+
+        @Override protected boolean onFrame(long playTime) {
+            lastPlayTime = playTime;
+            return frames.onFrame(playTime);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package roo.clockanimation;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Bursts of thousands of random time updates, the way a held plus/minus button or a scripted
+ * kiosk feeds the clock. Seeds are fixed, so a failure always reproduces.
+ */
+public class ClockKinematicsSoakTest {
+
+    private static final long JULY_15_2016 = ClockKinematics.epochMinute(2016, 7, 15, 0);
+
+    private static final int BURSTS = 50;
+    private static final int UPDATES_PER_BURST = 2000;
+
+    // bytes per update once warmed up; the kinematics allocate nothing, this leaves room for the
+    // allocation counter itself
+    private static final long ALLOCATION_BUDGET = 1;
+
+    private static final long FRAME_MILLIS = 16;
+    // frames the last transition of a burst may take to come to rest, three durations
+    private static final long SETTLE_FRAMES = 3 * ClockKinematics.DEFAULT_DURATION / FRAME_MILLIS;
+
+    @Test
+    public void withDays_landsExactlyOnTarget() throws Exception {
+        soak(true, false, 1);
+    }
+
+    @Test
+    public void withoutDays_landsExactlyOnTarget() throws Exception {
+        soak(false, false, 2);
+    }
+
+    @Test
+    public void spring_landsExactlyOnTarget() throws Exception {
+        soak(true, true, 3);
+    }
+
+    @Test
+    public void cappedRevolutions_landsExactlyOnTarget() throws Exception {
+        ClockKinematics kinematics = new ClockKinematics(JULY_15_2016);
+        kinematics.setRevolutionPolicy(ClockKinematics.compressRevolutions(3));
+        soak(kinematics, new Random(4));
+    }
+
+    @Test
+    public void steadyState_staysWithinAllocationBudget() throws Exception {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+        long threadId = Thread.currentThread().getId();
+
+        ClockKinematics kinematics = new ClockKinematics(JULY_15_2016);
+        long[] minutes = randomMinutes(new Random(5), UPDATES_PER_BURST);
+        // warm up, so class loading and compilation are not counted
+        for (int i = 0; i < 10; i++) {
+            burst(kinematics, minutes);
+        }
+
+        long before = threads.getThreadAllocatedBytes(threadId);
+        burst(kinematics, minutes);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue("allocated " + allocated + " bytes for " + minutes.length + " updates",
+                allocated <= ALLOCATION_BUDGET * minutes.length);
+    }
+
+    private void soak(boolean animateDays, boolean spring, long seed) {
+        ClockKinematics kinematics = new ClockKinematics(JULY_15_2016);
+        kinematics.setAnimateDays(animateDays);
+        kinematics.setSpring(spring);
+        soak(kinematics, new Random(seed));
+    }
+
+    private void soak(ClockKinematics kinematics, Random random) {
+        for (int i = 0; i < BURSTS; i++) {
+            long[] minutes = randomMinutes(random, UPDATES_PER_BURST);
+            long target = minutes[minutes.length - 1];
+            String burst = "burst " + i + " to " + target;
+
+            // the last transition plays out frame by frame, the hands have to land on their own
+            long playTime = burst(kinematics, minutes);
+            long endTime = playTime + SETTLE_FRAMES * FRAME_MILLIS;
+            while (kinematics.update(playTime += FRAME_MILLIS)) {
+                assertTrue(burst + " still running", playTime < endTime);
+            }
+
+            int minuteOfDay = ClockKinematics.minuteOfDay(target);
+            assertEquals(burst, (minuteOfDay * 6) % 360, kinematics.getCurrentMinRotation(), 0f);
+            assertEquals(burst, (minuteOfDay / 2f) % 360f, kinematics.getCurrentHourRotation(), 0f);
+            assertEquals(burst, 0f, kinematics.getRemainingMinRotation(), 0f);
+            assertEquals(burst, 0f, kinematics.getRemainingHourRotation(), 0f);
+            assertEquals(burst, target, kinematics.getPreviousMinute());
+        }
+    }
+
+    /**
+     * Retargets to each minute in turn and plays part of the transition in between, like updates
+     * coming in faster than transitions finish.
+     *
+     * @return the play time of the last transition
+     */
+    private static long burst(ClockKinematics kinematics, long[] minutes) {
+        long playTime = 0;
+        for (long minute : minutes) {
+            kinematics.retarget(minute);
+            kinematics.begin();
+            playTime = (playTime * 31 + 7) % kinematics.getDuration();
+            kinematics.update(playTime);
+        }
+        return playTime;
+    }
+
+    /**
+     * Mostly small steps either way, with the odd jump of hours, days or months.
+     */
+    private static long[] randomMinutes(Random random, int count) {
+        long[] minutes = new long[count];
+        long minute = JULY_15_2016 + random.nextInt(ClockKinematics.MINUTES_PER_DAY);
+        for (int i = 0; i < count; i++) {
+            int kind = random.nextInt(10);
+            if (kind < 6) {
+                minute += random.nextInt(61) - 30;
+            } else if (kind < 8) {
+                minute += (random.nextInt(49) - 24) * 60;
+            } else if (kind < 9) {
+                minute += (random.nextInt(61) - 30) * (long) ClockKinematics.MINUTES_PER_DAY;
+            } else {
+                minute += (random.nextInt(25) - 12) * 30L * ClockKinematics.MINUTES_PER_DAY;
+            }
+            minutes[i] = minute;
+        }
+        return minutes;
+    }
+}
@@ -0,0 +1,226 @@
+package roo.clockanimation;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ClockKinematicsTest {
+
+    private static final float DELTA = 0.0001f;
+
+    private static final long JULY_15_2016 = ClockKinematics.epochMinute(2016, 7, 15, 0);
+
+    @Test
+    public void epochDay_matchesIsoCalendar() throws Exception {
+        assertEquals(0, ClockKinematics.epochDay(1970, 1, 1));
+        assertEquals(-1, ClockKinematics.epochDay(1969, 12, 31));
+        assertEquals(11017, ClockKinematics.epochDay(2000, 3, 1));
+        assertEquals(16860, ClockKinematics.epochDay(2016, 2, 29));
+        assertEquals(16997, ClockKinematics.epochDay(2016, 7, 15));
+    }
+
+    @Test
+    public void minutesBetween_withDays() throws Exception {
+        long later = JULY_15_2016 + 2 * ClockKinematics.MINUTES_PER_DAY + 90;
+        assertEquals(2 * 24 * 60 + 90, ClockKinematics.minutesBetween(JULY_15_2016, later, true));
+        assertEquals(-(2 * 24 * 60 + 90), ClockKinematics.minutesBetween(later, JULY_15_2016, true));
+    }
+
+    @Test
+    public void minutesBetween_withoutDays_ignoresDate() throws Exception {
+        long later = JULY_15_2016 + 2 * ClockKinematics.MINUTES_PER_DAY + 90;
+        assertEquals(90, ClockKinematics.minutesBetween(JULY_15_2016, later, false));
+
+        long earlier = JULY_15_2016 - 30;
+        assertEquals(23 * 60 + 30, ClockKinematics.minutesBetween(JULY_15_2016, earlier, false));
+    }
+
+    @Test
+    public void retarget_accumulatesRotation() throws Exception {
+        ClockKinematics kinematics = new ClockKinematics(JULY_15_2016);
+
+        kinematics.retarget(JULY_15_2016 + 90);
+
+        assertEquals(45f, kinematics.getTargetHourRotation(), DELTA);
+        assertEquals(540f, kinematics.getTargetMinRotation(), DELTA);
+        assertEquals(45f, kinematics.getRemainingHourRotation(), DELTA);
+        assertEquals(540f, kinematics.getRemainingMinRotation(), DELTA);
+    }
+
+    @Test
+    public void retarget_keepsRotationPendingFromInterruptedTransition() throws Exception {
+        ClockKinematics kinematics = new ClockKinematics(JULY_15_2016);
+        kinematics.retarget(JULY_15_2016 + 60);
+        kinematics.setProgress(0.5f);
+
+        kinematics.retarget(JULY_15_2016 + 120);
+
+        assertEquals(60f, kinematics.getTargetHourRotation(), DELTA);
+        assertEquals(720f, kinematics.getTargetMinRotation(), DELTA);
+    }
+
+    @Test
+    public void update_interpolatesAndLandsOnTarget() throws Exception {
+        ClockKinematics kinematics = new ClockKinematics(JULY_15_2016);
+        kinematics.retarget(JULY_15_2016 + 60);
+
+        assertTrue(kinematics.update(ClockKinematics.DEFAULT_DURATION / 2));
+        assertEquals(15f, kinematics.getCurrentHourRotation(), DELTA);
+        assertEquals(180f, kinematics.getCurrentMinRotation(), DELTA);
+
+        assertFalse(kinematics.update(ClockKinematics.DEFAULT_DURATION));
+        assertEquals(30f, kinematics.getCurrentHourRotation(), 0f);
+        // normalized back into [0, 360)
+        assertEquals(0f, kinematics.getCurrentMinRotation(), 0f);
+        assertEquals(0f, kinematics.getRemainingMinRotation(), 0f);
+    }
+
+    @Test
+    public void spring_retargetKeepsVelocityAndSettles() throws Exception {
+        ClockKinematics kinematics = new ClockKinematics(JULY_15_2016);
+        kinematics.setSpring(true);
+        kinematics.retarget(JULY_15_2016 + 60);
+        kinematics.begin();
+
+        assertTrue(kinematics.update(100));
+        float velocity = kinematics.getMinVelocity();
+        assertTrue(velocity > 0f);
+
+        kinematics.retarget(JULY_15_2016 + 120);
+        assertEquals(velocity, kinematics.getMinVelocity(), 0f);
+
+        long playTime = 100;
+        while (kinematics.update(playTime += 16)) {
+            assertTrue(playTime < 100 + 3 * ClockKinematics.DEFAULT_DURATION);
+        }
+        assertEquals(60f, kinematics.getCurrentHourRotation(), 0f);
+        assertEquals(0f, kinematics.getCurrentMinRotation(), 0f);
+    }
+
+    @Test
+    public void spring_settlesAfterJumpOfMonths() throws Exception {
+        // far enough that the minute hand's float angle rounds by more than the rest threshold
+        for (int days : new int[]{16, 30, 400}) {
+            ClockKinematics kinematics = new ClockKinematics(JULY_15_2016);
+            kinematics.setSpring(true);
+            kinematics.retarget(JULY_15_2016 + days * ClockKinematics.MINUTES_PER_DAY + 20);
+            kinematics.begin();
+
+            long playTime = 0;
+            while (kinematics.update(playTime += 16)) {
+                assertTrue(days + " days", playTime < 3 * ClockKinematics.DEFAULT_DURATION);
+            }
+            assertEquals(10f, kinematics.getCurrentHourRotation(), 0f);
+            assertEquals(120f, kinematics.getCurrentMinRotation(), 0f);
+            assertEquals(0f, kinematics.getRemainingMinRotation(), 0f);
+        }
+    }
+
+    @Test
+    public void capRevolutions_keepsFinalAngle() throws Exception {
+        ClockKinematics kinematics = new ClockKinematics(JULY_15_2016);
+        kinematics.setRevolutionPolicy(ClockKinematics.capRevolutions(2));
+
+        // 90 days, 5 hours and 20 minutes later
+        kinematics.retarget(JULY_15_2016 + 90 * ClockKinematics.MINUTES_PER_DAY + 5 * 60 + 20);
+
+        assertEquals(2 * 360f + 120f, kinematics.getRemainingMinRotation(), DELTA);
+        assertEquals(2 * 360f + 160f, kinematics.getRemainingHourRotation(), DELTA);
+    }
+
+    @Test
+    public void retarget_staysPreciseOverLongSessions() throws Exception {
+        ClockKinematics kinematics = new ClockKinematics(JULY_15_2016);
+        long minute = JULY_15_2016;
+        for (int i = 0; i < 10000; i++) {
+            minute += 30 * ClockKinematics.MINUTES_PER_DAY + 7;
+            kinematics.retarget(minute);
+            kinematics.finish();
+        }
+
+        int minuteOfDay = ClockKinematics.minuteOfDay(minute);
+        assertEquals((minuteOfDay * 6) % 360, kinematics.getCurrentMinRotation(), DELTA);
+        assertEquals((minuteOfDay / 2f) % 360f, kinematics.getCurrentHourRotation(), DELTA);
+    }
+
+    @Test
+    public void reset_placesHandsOnTimeOfDay() throws Exception {
+        ClockKinematics kinematics = new ClockKinematics(JULY_15_2016 + 15 * 60 + 30);
+
+        assertEquals(105f, kinematics.getCurrentHourRotation(), DELTA);
+        assertEquals(180f, kinematics.getCurrentMinRotation(), DELTA);
+        assertEquals(0f, kinematics.getRemainingMinRotation(), DELTA);
+    }
+
+    @Test
+    public void liveTime_secondsAndBoundaries() throws Exception {
+        long localMillis = (JULY_15_2016 + 10 * 60 + 42) * 60000 + 17500;
+
+        assertEquals(JULY_15_2016 + 10 * 60 + 42, ClockKinematics.epochMinuteAt(localMillis));
+        assertEquals(17 * 6f, ClockKinematics.secondRotation(localMillis), 0f);
+        assertEquals(500, ClockKinematics.millisUntilNext(localMillis, 1000));
+        assertEquals(42500, ClockKinematics.millisUntilNext(localMillis, 60000));
+        assertEquals(1000, ClockKinematics.millisUntilNext(localMillis + 500, 1000));
+    }
+
+    @Test
+    public void liveTime_beforeEpoch() throws Exception {
+        // 1969-12-31T23:59:30
+        long localMillis = -30000;
+
+        assertEquals(-1, ClockKinematics.epochMinuteAt(localMillis));
+        assertEquals(30 * 6f, ClockKinematics.secondRotation(localMillis), 0f);
+        assertEquals(30000, ClockKinematics.millisUntilNext(localMillis, 60000));
+    }
+
+    @Test
+    public void restore_resumesTransitionMidway() throws Exception {
+        ClockKinematics kinematics = new ClockKinematics(JULY_15_2016);
+        kinematics.retarget(JULY_15_2016 + 60);
+        kinematics.update(200);
+        double[] rotations = new double[kinematics.getSavedLength()];
+        kinematics.save(rotations);
+
+        // a clock created after a configuration change starts out at midnight of another day
+        ClockKinematics restored = new ClockKinematics(JULY_15_2016 + 3 * ClockKinematics.MINUTES_PER_DAY);
+        restored.restore(kinematics.getPreviousMinute(), rotations);
+
+        assertEquals(kinematics.getCurrentMinRotation(), restored.getCurrentMinRotation(), 0f);
+        assertEquals(kinematics.getRemainingMinRotation(), restored.getRemainingMinRotation(), 0f);
+        kinematics.update(300);
+        restored.update(300);
+        assertEquals(kinematics.getCurrentHourRotation(), restored.getCurrentHourRotation(), 0f);
+        assertEquals(kinematics.getCurrentMinRotation(), restored.getCurrentMinRotation(), 0f);
+
+        restored.retarget(JULY_15_2016 + 90);
+        restored.finish();
+        assertEquals(45f, restored.getCurrentHourRotation(), DELTA);
+        assertEquals(180f, restored.getCurrentMinRotation(), DELTA);
+    }
+
+    @Test
+    public void addHand_startsOnTimeAndMovesWithTheOthers() throws Exception {
+        // a Friday, 15:30
+        ClockKinematics kinematics = new ClockKinematics(JULY_15_2016 + 15 * 60 + 30);
+        int hour24 = kinematics.addHand(ClockKinematics.HOUR_24_DEGREES_PER_MINUTE, 0);
+        int dayOfWeek = kinematics.addHand(ClockKinematics.DAY_OF_WEEK_DEGREES_PER_MINUTE,
+                ClockKinematics.DAY_OF_WEEK_MONDAY_ON_TOP);
+
+        assertEquals(4, kinematics.getHandCount());
+        assertEquals(232.5f, kinematics.getCurrentRotation(hour24), DELTA);
+        assertEquals((4 + 15.5f / 24) * 360f / 7, kinematics.getCurrentRotation(dayOfWeek), 0.001f);
+
+        // two days and 30 minutes later, Sunday 16:00
+        kinematics.retarget(JULY_15_2016 + 2 * ClockKinematics.MINUTES_PER_DAY + 16 * 60);
+        assertEquals(2 * 360f + 7.5f, kinematics.getRemainingRotation(hour24), DELTA);
+        kinematics.update(ClockKinematics.DEFAULT_DURATION / 2);
+        assertEquals(232.5f + 360f + 3.75f, kinematics.getCurrentRotation(hour24), DELTA);
+
+        kinematics.finish();
+        assertEquals(240f, kinematics.getCurrentRotation(hour24), DELTA);
+        assertEquals((6 + 16f / 24) * 360f / 7, kinematics.getCurrentRotation(dayOfWeek), 0.001f);
+        assertEquals(120f, kinematics.getCurrentHourRotation(), DELTA);
+    }
+}
@@ -0,0 +1,42 @@
+package roo.clockanimation;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ClockPainterTest {
+
+    @Test
+    public void tipTravel_isChordOfTheTip() throws Exception {
+        ClockPainter painter = new ClockPainter();
+        painter.setSize(200, 200, 2f);
+        float radius = painter.getScrewRadius() + painter.getMinuteHandLength();
+
+        assertEquals(2 * radius, painter.tipTravel(0f, 180f, painter.getMinuteHandLength()), 0.01f);
+        assertEquals(radius * Math.sqrt(2), painter.tipTravel(350f, 440f, painter.getMinuteHandLength()), 0.01f);
+        assertEquals(radius * Math.sqrt(2), painter.tipTravel(440f, 350f, painter.getMinuteHandLength()), 0.01f);
+    }
+
+    @Test
+    public void tipTravel_ignoresWholeTurns() throws Exception {
+        ClockPainter painter = new ClockPainter();
+        painter.setSize(200, 200, 2f);
+
+        assertEquals(0f, painter.tipTravel(10f, 730f, painter.getMinuteHandLength()), 0.01f);
+    }
+
+    @Test
+    public void hourHandOfSmallClock_movesLessThanAPixelAtTheEnds() throws Exception {
+        ClockPainter painter = new ClockPainter();
+        painter.setSize(48, 48, 2f);
+        ClockKinematics kinematics = new ClockKinematics(0);
+        kinematics.retarget(60);
+
+        kinematics.update(0);
+        float from = kinematics.getCurrentHourRotation();
+        kinematics.update(16);
+
+        assertTrue(painter.tipTravel(from, kinematics.getCurrentHourRotation(), painter.getHourHandLength()) < 0.5f);
+    }
+}
@@ -0,0 +1,110 @@
+package roo.clockanimation;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class ClockTickerTest {
+
+    private static final long FRAME_NANOS = 16666667;
+
+    private ManualFrameClock frameClock;
+    private ClockTicker ticker;
+
+    @Before
+    public void setUp() throws Exception {
+        frameClock = new ManualFrameClock(0);
+        ticker = new ClockTicker(frameClock);
+    }
+
+    @Test
+    public void clientUnregisteringAnEarlierOne_othersTickOncePerFrame() throws Exception {
+        CountingClient first = new CountingClient();
+        CountingClient second = new CountingClient();
+        CountingClient last = new CountingClient();
+        ticker.register(first);
+        ticker.register(second);
+        ticker.register(last);
+        second.unregisterOnFrame = first;
+
+        frameClock.step(FRAME_NANOS);
+
+        assertEquals(1, second.frames);
+        assertEquals(1, last.frames);
+        assertFalse(first.isRegistered());
+        assertEquals(2, ticker.getActiveCount());
+
+        frameClock.step(FRAME_NANOS);
+        assertEquals(2, second.frames);
+        assertEquals(2, last.frames);
+    }
+
+    @Test
+    public void clientUnregisteringALaterOne_movedClientStillTicks() throws Exception {
+        CountingClient first = new CountingClient();
+        CountingClient second = new CountingClient();
+        CountingClient last = new CountingClient();
+        ticker.register(first);
+        ticker.register(second);
+        ticker.register(last);
+        first.unregisterOnFrame = second;
+
+        frameClock.step(FRAME_NANOS);
+
+        assertEquals(1, first.frames);
+        assertEquals(0, second.frames);
+        assertEquals(1, last.frames);
+    }
+
+    @Test
+    public void clientRegisteredDuringFrame_startsOnNextFrame() throws Exception {
+        final CountingClient added = new CountingClient();
+        CountingClient first = new CountingClient() {
+            @Override protected boolean onFrame(long playTime) {
+                ticker.start(added);
+                return super.onFrame(playTime);
+            }
+        };
+        ticker.register(first);
+
+        frameClock.step(FRAME_NANOS);
+        assertEquals(0, added.frames);
+
+        frameClock.step(FRAME_NANOS);
+        assertEquals(1, added.frames);
+        assertEquals(0, added.lastPlayTime);
+    }
+
+    @Test
+    public void finishedClient_unregistersAndStopsFrames() throws Exception {
+        CountingClient client = new CountingClient();
+        client.framesLeft = 2;
+        ticker.register(client);
+
+        frameClock.step(FRAME_NANOS);
+        frameClock.step(FRAME_NANOS);
+
+        assertEquals(0, ticker.getActiveCount());
+        assertFalse(frameClock.step(FRAME_NANOS));
+        assertEquals(2, client.frames);
+    }
+
+    private class CountingClient extends ClockTicker.Client {
+        int frames;
+        int framesLeft = Integer.MAX_VALUE;
+        long lastPlayTime = -1;
+        ClockTicker.Client unregisterOnFrame;
+
+        @Override protected boolean onFrame(long playTime) {
+            frames++;
+            lastPlayTime = playTime;
+            if (unregisterOnFrame != null) {
+                ticker.unregister(unregisterOnFrame);
+                unregisterOnFrame = null;
+            }
+            return --framesLeft > 0;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package roo.clockanimation;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ClockTimelineTest {
+
+    private static final float DELTA = 0.0001f;
+
+    private static final long JULY_15_2016 = ClockKinematics.epochMinute(2016, 7, 15, 0);
+
+    // 06:00, 14:00, 22:00 and back to 06:00 the next day, a second per shift
+    private static final long[] SHIFTS = {
+            JULY_15_2016 + 14 * 60,
+            JULY_15_2016 + 22 * 60,
+            JULY_15_2016 + ClockKinematics.MINUTES_PER_DAY + 6 * 60};
+    private static final long[] DURATIONS = {1000, 1000, 1000};
+
+    private ClockTimeline shifts() {
+        return new ClockTimeline(JULY_15_2016 + 6 * 60, SHIFTS, DURATIONS, true, ClockKinematics.ALL_REVOLUTIONS);
+    }
+
+    @Test
+    public void seek_interpolatesWithinStep() throws Exception {
+        ClockTimeline timeline = shifts();
+
+        assertTrue(timeline.seek(1500));
+
+        assertEquals(1, timeline.getStep());
+        // 14:00 is 60 degrees on the hour hand, half way to 22:00 is another 120
+        assertEquals(60f + 120f, timeline.getHourRotation(), DELTA);
+        assertEquals(0f + 8 * 360f / 2, timeline.getMinRotation(), DELTA);
+        assertEquals(300f, timeline.getTargetHourRotation(), DELTA);
+        assertEquals(SHIFTS[1], timeline.getTargetMinute());
+    }
+
+    @Test
+    public void seek_matchesSingleTransitions() throws Exception {
+        ClockTimeline timeline = shifts();
+        ClockKinematics kinematics = new ClockKinematics(JULY_15_2016 + 6 * 60);
+        kinematics.setDuration(1000);
+
+        for (int i = 0; i < SHIFTS.length; i++) {
+            kinematics.retarget(SHIFTS[i]);
+            for (long playTime = 0; playTime < 1000; playTime += 16) {
+                kinematics.update(playTime);
+                timeline.seek(i * 1000 + playTime);
+                assertEquals(kinematics.getCurrentHourRotation(), timeline.getHourRotation(), 0.01f);
+                assertEquals(kinematics.getCurrentMinRotation(), timeline.getMinRotation(), 0.01f);
+            }
+            kinematics.finish();
+        }
+    }
+
+    @Test
+    public void seek_pastEnd_landsOnLastTime() throws Exception {
+        ClockTimeline timeline = shifts();
+
+        assertFalse(timeline.seek(5000));
+
+        assertEquals(2, timeline.getStep());
+        // 06:00 again, after two whole turns of the hour hand over the day
+        assertEquals(180f, timeline.getHourRotation() % 360f, DELTA);
+        assertEquals(0f, timeline.getMinRotation() % 360f, DELTA);
+    }
+
+    @Test
+    public void seek_looping_wrapsAndSeeksBackwards() throws Exception {
+        ClockTimeline timeline = shifts();
+        timeline.setLooping(true);
+
+        assertTrue(timeline.seek(2500));
+        assertEquals(2, timeline.getStep());
+
+        assertTrue(timeline.seek(3000 + 500));
+        assertEquals(0, timeline.getStep());
+        assertEquals(180f + 240f / 2, timeline.getHourRotation(), DELTA);
+    }
+
+    @Test
+    public void zeroDuration_jumps() throws Exception {
+        ClockTimeline timeline = new ClockTimeline(JULY_15_2016, new long[]{JULY_15_2016 + 3 * 60, JULY_15_2016 + 4 * 60},
+                new long[]{0, 1000}, true, ClockKinematics.ALL_REVOLUTIONS);
+
+        assertTrue(timeline.seek(0));
+
+        assertEquals(1, timeline.getStep());
+        assertEquals(90f, timeline.getHourRotation(), DELTA);
+    }
+
+    @Test
+    public void follow_letsKinematicsRetargetFromTimeline() throws Exception {
+        ClockTimeline timeline = shifts();
+        ClockKinematics kinematics = new ClockKinematics(JULY_15_2016 + 6 * 60);
+        timeline.seek(400);
+        kinematics.follow(timeline);
+
+        kinematics.retarget(JULY_15_2016 + 15 * 60);
+        kinematics.finish();
+
+        assertEquals(90f, kinematics.getCurrentHourRotation(), DELTA);
+        assertEquals(0f, kinematics.getCurrentMinRotation(), DELTA);
+    }
+
+    @Test
+    public void timelineOfClock_movesEveryHand() throws Exception {
+        ClockKinematics kinematics = new ClockKinematics(JULY_15_2016 + 6 * 60);
+        int hour24 = kinematics.addHand(ClockKinematics.HOUR_24_DEGREES_PER_MINUTE, 0);
+        ClockTimeline timeline = new ClockTimeline(kinematics, SHIFTS, DURATIONS);
+
+        assertEquals(3, timeline.getHandCount());
+        assertTrue(timeline.seek(500));
+        assertEquals(90f + 120f / 2, timeline.getRotation(hour24), DELTA);
+
+        timeline.seek(1500);
+        kinematics.follow(timeline);
+        kinematics.finish();
+        assertEquals(330f, kinematics.getCurrentRotation(hour24), DELTA);
+        assertEquals(300f, kinematics.getCurrentHourRotation(), DELTA);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void mismatchedDurations_throw() throws Exception {
+        new ClockTimeline(JULY_15_2016, SHIFTS, new long[]{1000}, true, ClockKinematics.ALL_REVOLUTIONS);
+    }
+}
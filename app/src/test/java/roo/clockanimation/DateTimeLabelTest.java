@@ -0,0 +1,35 @@
+package roo.clockanimation;
+
+import org.joda.time.LocalDateTime;
+import org.joda.time.format.DateTimeFormat;
+import org.joda.time.format.DateTimeFormatter;
+import org.junit.Test;
+
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+
+public class DateTimeLabelTest {
+
+    private static final Locale[] LOCALES = {Locale.UK, Locale.FRANCE, Locale.GERMANY, Locale.JAPAN};
+
+    @Test
+    public void format_matchesJodaPattern() throws Exception {
+        LocalDateTime start = new LocalDateTime(1969, 12, 25, 0, 0);
+        for (Locale locale : LOCALES) {
+            DateTimeFormatter dtf = DateTimeFormat.forPattern("dd MMM HH:mm").withLocale(locale);
+            DateTimeLabel label = new DateTimeLabel(locale);
+
+            for (int i = 0; i < 20000; i++) {
+                LocalDateTime time = start.plusMinutes(i * 997);
+                int length = label.format(toEpochMinute(time));
+                assertEquals(dtf.print(time), new String(label.getChars(), 0, length));
+            }
+        }
+    }
+
+    private static long toEpochMinute(LocalDateTime time) {
+        return ClockKinematics.epochMinute(time.getYear(), time.getMonthOfYear(), time.getDayOfMonth(),
+                time.getMillisOfDay() / 60000);
+    }
+}
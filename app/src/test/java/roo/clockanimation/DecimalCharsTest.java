@@ -0,0 +1,18 @@
+package roo.clockanimation;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class DecimalCharsTest {
+
+    @Test
+    public void toChars_matchesIntegerToString() throws Exception {
+        char[] chars = new char[DecimalChars.MAX_LENGTH];
+        int[] values = {0, 7, -7, 10, -305, 2016, Integer.MAX_VALUE, Integer.MIN_VALUE};
+        for (int value : values) {
+            int length = DecimalChars.toChars(value, chars);
+            assertEquals(Integer.toString(value), new String(chars, 0, length));
+        }
+    }
+}
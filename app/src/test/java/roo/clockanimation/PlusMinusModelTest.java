@@ -0,0 +1,49 @@
+package roo.clockanimation;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PlusMinusModelTest {
+
+    @Test
+    public void queuedSteps_applyOnceAndReportChangedFields() throws Exception {
+        PlusMinusModel model = new PlusMinusModel();
+
+        assertTrue(model.queue(PlusMinusModel.MINUTES, 5));
+        assertFalse(model.queue(PlusMinusModel.MINUTES, 5));
+        assertFalse(model.queue(PlusMinusModel.DAYS, -1));
+        assertEquals(0, model.get(PlusMinusModel.MINUTES));
+        assertEquals(10, model.getWithPending(PlusMinusModel.MINUTES));
+
+        int changed = model.applyPending();
+
+        assertEquals(1 << PlusMinusModel.DAYS | 1 << PlusMinusModel.MINUTES, changed);
+        assertEquals(-1, model.get(PlusMinusModel.DAYS));
+        assertEquals(10, model.get(PlusMinusModel.MINUTES));
+        assertEquals(0, model.applyPending());
+        assertTrue(model.queue(PlusMinusModel.HOURS, 1));
+    }
+
+    @Test
+    public void stepFor_growsWithHeldTime() throws Exception {
+        assertEquals(1, PlusMinusModel.stepFor(0));
+        assertEquals(1, PlusMinusModel.stepFor(999));
+        assertEquals(2, PlusMinusModel.stepFor(1000));
+        assertEquals(30, PlusMinusModel.stepFor(4000));
+        assertEquals(30, PlusMinusModel.stepFor(60000));
+    }
+
+    @Test
+    public void toChars_rendersTheField() throws Exception {
+        PlusMinusModel model = new PlusMinusModel();
+        model.set(PlusMinusModel.HOURS, -12);
+        char[] chars = new char[DecimalChars.MAX_LENGTH];
+
+        int length = model.toChars(PlusMinusModel.HOURS, chars);
+
+        assertEquals("-12", new String(chars, 0, length));
+    }
+}
@@ -0,0 +1,79 @@
+package roo.clockanimation;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.LocalDateTime;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ZoneOffsetTableTest {
+
+    private static final DateTimeZone[] ZONES = {
+            DateTimeZone.UTC,
+            DateTimeZone.forID("Europe/London"),
+            DateTimeZone.forID("America/New_York"),
+            DateTimeZone.forID("Asia/Kolkata"),
+            // half hour DST
+            DateTimeZone.forID("Australia/Lord_Howe"),
+            DateTimeZone.forID("America/St_Johns")};
+
+    private static final long FROM = new DateTime(2016, 1, 1, 0, 0, DateTimeZone.UTC).getMillis();
+    private static final long TO = new DateTime(2018, 1, 1, 0, 0, DateTimeZone.UTC).getMillis();
+
+    @Test
+    public void localEpochMinute_matchesJoda() throws Exception {
+        ZoneOffsetTable table = new ZoneOffsetTable(ZONES, FROM, TO);
+
+        // every 7 hours and 13 minutes through the window, which crosses every transition hour
+        for (long instant = FROM; instant < TO; instant += (7 * 60 + 13) * 60000L) {
+            for (int zone = 0; zone < ZONES.length; zone++) {
+                LocalDateTime local = new LocalDateTime(instant, ZONES[zone]);
+                long expected = ClockKinematics.epochMinute(local.getYear(), local.getMonthOfYear(),
+                        local.getDayOfMonth(), local.getMillisOfDay() / 60000);
+                assertEquals(ZONES[zone].getID() + " at " + instant, expected, table.localEpochMinute(zone, instant));
+            }
+        }
+    }
+
+    @Test
+    public void offsetsChangeExactlyAtTransition() throws Exception {
+        ZoneOffsetTable table = new ZoneOffsetTable(ZONES, FROM, TO);
+        // Europe/London goes to BST at 01:00 UTC on 2016-03-27
+        long transition = new DateTime(2016, 3, 27, 1, 0, DateTimeZone.UTC).getMillis();
+
+        assertEquals(0, table.getOffsetMillis(1, transition - 1));
+        assertEquals(60 * 60000, table.getOffsetMillis(1, transition));
+    }
+
+    @Test
+    public void localEpochMinutes_fansOutToAllZones() throws Exception {
+        ZoneOffsetTable table = new ZoneOffsetTable(ZONES, FROM, TO);
+        long instant = new DateTime(2016, 7, 15, 12, 0, DateTimeZone.UTC).getMillis();
+        long[] epochMinutes = new long[ZONES.length];
+
+        table.localEpochMinutes(instant, epochMinutes);
+
+        long july15 = ClockKinematics.epochMinute(2016, 7, 15, 0);
+        assertEquals(july15 + 12 * 60, epochMinutes[0]);
+        assertEquals(july15 + 13 * 60, epochMinutes[1]);
+        assertEquals(july15 + 8 * 60, epochMinutes[2]);
+        assertEquals(july15 + 17 * 60 + 30, epochMinutes[3]);
+        assertEquals(july15 + 22 * 60 + 30, epochMinutes[4]);
+        assertEquals(july15 + 9 * 60 + 30, epochMinutes[5]);
+    }
+
+    @Test
+    public void outsideWindow_usesNearestOffset() throws Exception {
+        ZoneOffsetTable table = new ZoneOffsetTable(ZONES, FROM, TO);
+
+        assertFalse(table.covers(FROM - 1));
+        assertTrue(table.covers(FROM));
+        assertFalse(table.covers(TO));
+        // New York is on standard time at both ends
+        assertEquals(-5 * 60 * 60000, table.getOffsetMillis(2, FROM - 1));
+        assertEquals(-5 * 60 * 60000, table.getOffsetMillis(2, TO + 1));
+    }
+}
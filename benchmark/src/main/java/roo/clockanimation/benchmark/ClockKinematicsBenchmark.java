@@ -0,0 +1,91 @@
+package roo.clockanimation.benchmark;
+
+import org.joda.time.LocalDateTime;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import roo.clockanimation.ClockKinematics;
+
+import static org.joda.time.Minutes.minutesBetween;
+
+/**
+ * The delta/angle computation done by {@code ClockDrawable.start(LocalDateTime)} and
+ * {@code getMinsBetween}, once through Joda the way the drawable used to and once through
+ * {@link ClockKinematics}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ClockKinematicsBenchmark {
+
+    @Param({"true", "false"})
+    public boolean animateDays;
+
+    private final LocalDateTime[] times = new LocalDateTime[64];
+    private int index;
+
+    private LocalDateTime previousTime;
+    private ClockKinematics kinematics;
+
+    @Setup public void setUp() {
+        LocalDateTime now = new LocalDateTime(2016, 7, 15, 0, 0);
+        for (int i = 0; i < times.length; i++) {
+            times[i] = now.plusDays(i % 3).plusHours(i % 24).plusMinutes(i * 7 % 60);
+        }
+        previousTime = now;
+        kinematics = new ClockKinematics(toEpochMinute(now));
+        kinematics.setAnimateDays(animateDays);
+    }
+
+    private LocalDateTime next() {
+        index = (index + 1) & (times.length - 1);
+        return times[index];
+    }
+
+    @Benchmark public int jodaMinsBetween() {
+        LocalDateTime newTime = next();
+        int minDiff = getMinsBetween(previousTime, newTime);
+        previousTime = newTime;
+        return minDiff;
+    }
+
+    @Benchmark public int kinematicsMinsBetween() {
+        LocalDateTime newTime = next();
+        long newMinute = toEpochMinute(newTime);
+        int minDiff = ClockKinematics.minutesBetween(kinematics.getPreviousMinute(), newMinute, animateDays);
+        kinematics.reset(newMinute);
+        return minDiff;
+    }
+
+    @Benchmark public float kinematicsStart() {
+        kinematics.retarget(toEpochMinute(next()));
+        kinematics.update(kinematics.getDuration() / 2);
+        return kinematics.getTargetMinRotation();
+    }
+
+    private int getMinsBetween(LocalDateTime t1, LocalDateTime t2) {
+        if (animateDays) {
+            return minutesBetween(t1, t2).getMinutes();
+        }
+        return minutesBetween(t1, t2.withDate(t1.getYear(), t1.getMonthOfYear(), t1.getDayOfMonth())).getMinutes();
+    }
+
+    private static long toEpochMinute(LocalDateTime time) {
+        return ClockKinematics.epochMinute(time.getYear(), time.getMonthOfYear(), time.getDayOfMonth(),
+                time.getMillisOfDay() / 60000);
+    }
+}
@@ -0,0 +1,57 @@
+package roo.clockanimation.benchmark;
+
+import org.joda.time.DateTimeZone;
+import org.joda.time.LocalDateTime;
+import org.joda.time.format.DateTimeFormat;
+import org.joda.time.format.DateTimeFormatter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import roo.clockanimation.ClockKinematics;
+import roo.clockanimation.DateTimeLabel;
+
+/**
+ * The label update {@code MainActivity} runs on every change of the plus/minus layout, through
+ * Joda the way it used to and through {@link DateTimeLabel}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DateTimeFormatBenchmark {
+
+    private static final DateTimeFormatter DTF = DateTimeFormat.forPattern("dd MMM HH:mm")
+            .withLocale(Locale.getDefault())
+            .withZone(DateTimeZone.getDefault());
+
+    private final LocalDateTime now = new LocalDateTime(2016, 7, 15, 0, 0);
+
+    private final long nowMinute = ClockKinematics.epochMinute(2016, 7, 15, 0);
+    private final DateTimeLabel label = new DateTimeLabel(Locale.getDefault());
+
+    private int minutes;
+
+    @Benchmark public String print() {
+        minutes = (minutes + 1) % 60;
+        LocalDateTime current = now.plusDays(1).plusHours(2).plusMinutes(minutes);
+        return DTF.print(current);
+    }
+
+    @Benchmark public int label() {
+        minutes = (minutes + 1) % 60;
+        long current = nowMinute + ClockKinematics.MINUTES_PER_DAY + 2 * 60 + minutes;
+        return label.format(current);
+    }
+}
@@ -0,0 +1,61 @@
+package roo.clockanimation.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import roo.clockanimation.ClockKinematics;
+
+/**
+ * One transition frame of a dial with more and more hands, which should cost a loop iteration per
+ * hand and nothing else.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DialHandsBenchmark {
+
+    @Param({"2", "4", "16", "64"})
+    public int hands;
+
+    private ClockKinematics kinematics;
+    private long playTime;
+
+    @Setup public void setUp() {
+        long now = ClockKinematics.epochMinute(2016, 7, 15, 0);
+        kinematics = new ClockKinematics(now);
+        for (int i = 2; i < hands; i++) {
+            kinematics.addHand(ClockKinematics.DAY_OF_WEEK_DEGREES_PER_MINUTE * i, 0);
+        }
+        kinematics.setSpring(true);
+        kinematics.retarget(now + 3 * ClockKinematics.MINUTES_PER_DAY + 90);
+        kinematics.begin();
+    }
+
+    @Benchmark public float springFrame() {
+        // keeps the spring moving, a settled one would skip the work
+        playTime = (playTime + 16) % 200;
+        kinematics.begin();
+        kinematics.update(playTime);
+        return kinematics.getCurrentRotation(hands - 1);
+    }
+
+    @Benchmark public float tweenFrame() {
+        playTime = (playTime + 16) % kinematics.getDuration();
+        kinematics.setProgress(ClockKinematics.interpolate(playTime / (float) kinematics.getDuration()));
+        return kinematics.getCurrentRotation(hands - 1);
+    }
+}
@@ -0,0 +1,85 @@
+package roo.clockanimation.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import roo.clockanimation.DecimalChars;
+import roo.clockanimation.PlusMinusModel;
+
+import static java.lang.Integer.parseInt;
+
+/**
+ * The text round-trip {@code PlusMinusLayout} used to do on every tap: {@code change} on the
+ * tapped field, then {@code parseValue} of all three fields to notify the listener, against the
+ * layout's {@link PlusMinusModel}: a button step queued, applied on the next frame and only the
+ * changed field rendered. EditText cannot be created off-device, so the old fields are plain
+ * char sequences here.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PlusMinusBenchmark {
+
+    private CharSequence dayText = "0";
+    private CharSequence hourText = "0";
+    private CharSequence minuteText = "0";
+
+    private final PlusMinusModel model = new PlusMinusModel();
+    private final char[] digits = new char[DecimalChars.MAX_LENGTH];
+    private long heldMillis;
+
+    @Benchmark public int increase() {
+        minuteText = change(minuteText, 1);
+        return parseValue(dayText) + parseValue(hourText) + parseValue(minuteText);
+    }
+
+    @Benchmark public int decrease() {
+        hourText = change(hourText, -1);
+        return parseValue(dayText) + parseValue(hourText) + parseValue(minuteText);
+    }
+
+    @Benchmark public int increaseModel() {
+        model.queue(PlusMinusModel.MINUTES, 1);
+        return render(model.applyPending());
+    }
+
+    /**
+     * A held button, its step growing with the time held.
+     */
+    @Benchmark public int holdModel() {
+        heldMillis = (heldMillis + 50) % 6000;
+        model.queue(PlusMinusModel.HOURS, -PlusMinusModel.stepFor(heldMillis));
+        return render(model.applyPending());
+    }
+
+    private int render(int changed) {
+        int length = 0;
+        for (int field = PlusMinusModel.DAYS; field <= PlusMinusModel.MINUTES; field++) {
+            if ((changed & 1 << field) != 0) {
+                length += model.toChars(field, digits);
+            }
+        }
+        return length;
+    }
+
+    private static String change(CharSequence text, int value) {
+        return String.valueOf(parseValue(text) + value);
+    }
+
+    private static int parseValue(CharSequence text) {
+        String value = text.toString();
+        return value.isEmpty() ? 0 : parseInt(value);
+    }
+}
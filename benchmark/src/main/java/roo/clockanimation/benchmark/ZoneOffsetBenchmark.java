@@ -0,0 +1,83 @@
+package roo.clockanimation.benchmark;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.LocalDateTime;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import roo.clockanimation.ClockKinematics;
+import roo.clockanimation.ZoneOffsetTable;
+
+/**
+ * One instant fanned out to a clock per zone, through a Joda {@link LocalDateTime} per zone and
+ * through a {@link ZoneOffsetTable}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ZoneOffsetBenchmark {
+
+    private static final int ZONE_COUNT = 200;
+
+    private DateTimeZone[] zones;
+    private ZoneOffsetTable table;
+    private long[] epochMinutes;
+
+    private static final long FROM = new DateTime(2016, 7, 15, 0, 0, DateTimeZone.UTC).getMillis();
+    private static final long TO = FROM + 365L * 24 * 60 * 60000;
+
+    private long instant = FROM;
+
+    @Setup public void setUp() {
+        Set<String> ids = DateTimeZone.getAvailableIDs();
+        zones = new DateTimeZone[ZONE_COUNT];
+        int i = 0;
+        for (String id : ids) {
+            if (i == ZONE_COUNT) {
+                break;
+            }
+            zones[i++] = DateTimeZone.forID(id);
+        }
+        table = new ZoneOffsetTable(zones, FROM, TO);
+        epochMinutes = new long[ZONE_COUNT];
+    }
+
+    @Benchmark public long[] joda() {
+        nextInstant();
+        for (int i = 0; i < zones.length; i++) {
+            LocalDateTime local = new LocalDateTime(instant, zones[i]);
+            epochMinutes[i] = ClockKinematics.epochMinute(local.getYear(), local.getMonthOfYear(),
+                    local.getDayOfMonth(), local.getMillisOfDay() / 60000);
+        }
+        return epochMinutes;
+    }
+
+    @Benchmark public long[] table() {
+        nextInstant();
+        table.localEpochMinutes(instant, epochMinutes);
+        return epochMinutes;
+    }
+
+    /**
+     * Steps a minute on, wrapping around within the table's range, so both benchmarks look up the
+     * same instants however many ops a run takes.
+     */
+    private void nextInstant() {
+        instant = FROM + (instant - FROM + 60000) % (TO - FROM);
+    }
+}
@@ -0,0 +1,172 @@
+package roo.clockanimation.export;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import roo.clockanimation.ClockKinematics;
+import roo.clockanimation.ClockPainter;
+
+/**
+ * Renders the frames of a {@code ClockDrawable.start(LocalDateTime)} transition off-device, in
+ * parallel on a fork/join pool. Every task renders its frames one at a time into its own image
+ * and hands each one to the {@link FrameSink} straight away, so memory stays bounded by the
+ * number of worker threads rather than the number of frames.
+ */
+public class ClockFrameExporter {
+
+    // R.color.colorAccent and android.R.color.white
+    public static final int RIM_COLOR = 0xFFFF4081;
+    public static final int FACE_COLOR = 0xFFFFFFFF;
+
+    private static final int FRAMES_PER_TASK = 4;
+
+    private final int width;
+    private final int height;
+    private final float strokeWidth;
+
+    private int rimColor = RIM_COLOR;
+    private int faceColor = FACE_COLOR;
+    private boolean animateDays = true;
+    private long duration = ClockKinematics.DEFAULT_DURATION;
+
+    public ClockFrameExporter(int width, int height, float strokeWidth) {
+        this.width = width;
+        this.height = height;
+        this.strokeWidth = strokeWidth;
+    }
+
+    public void setColors(int rimColor, int faceColor) {
+        this.rimColor = rimColor;
+        this.faceColor = faceColor;
+    }
+
+    public void setAnimateDays(boolean animateDays) {
+        this.animateDays = animateDays;
+    }
+
+    public void setDuration(long duration) {
+        this.duration = duration;
+    }
+
+    /**
+     * Renders {@code frameCount} evenly spaced frames of the transition from {@code fromMinute}
+     * to {@code toMinute} (epoch minutes), first and last frame included.
+     */
+    public void export(long fromMinute, long toMinute, int frameCount, FrameSink sink) throws IOException {
+        ForkJoinPool pool = new ForkJoinPool();
+        try {
+            pool.invoke(new RenderTask(fromMinute, toMinute, frameCount, 0, frameCount, sink));
+        } catch (ExportException e) {
+            throw e.getCause();
+        } finally {
+            pool.shutdown();
+        }
+        sink.close();
+    }
+
+    private final class RenderTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final long fromMinute;
+        private final long toMinute;
+        private final int frameCount;
+        private final int start;
+        private final int end;
+        private final FrameSink sink;
+
+        RenderTask(long fromMinute, long toMinute, int frameCount, int start, int end, FrameSink sink) {
+            this.fromMinute = fromMinute;
+            this.toMinute = toMinute;
+            this.frameCount = frameCount;
+            this.start = start;
+            this.end = end;
+            this.sink = sink;
+        }
+
+        @Override protected void compute() {
+            if (end - start > FRAMES_PER_TASK) {
+                int middle = (start + end) >>> 1;
+                invokeAll(new RenderTask(fromMinute, toMinute, frameCount, start, middle, sink),
+                        new RenderTask(fromMinute, toMinute, frameCount, middle, end, sink));
+                return;
+            }
+
+            ClockKinematics kinematics = new ClockKinematics(fromMinute);
+            kinematics.setAnimateDays(animateDays);
+            kinematics.setDuration(duration);
+            kinematics.retarget(toMinute);
+
+            ClockPainter painter = new ClockPainter();
+            painter.setSize(width, height, strokeWidth);
+            Java2DSurface surface = new Java2DSurface(rimColor, faceColor, strokeWidth);
+
+            BufferedImage frame = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D graphics = frame.createGraphics();
+            graphics.setBackground(new Color(0, true));
+            surface.setGraphics(graphics);
+            try {
+                for (int i = start; i < end; i++) {
+                    long playTime = frameCount > 1 ? i * duration / (frameCount - 1) : duration;
+                    kinematics.update(playTime);
+
+                    graphics.clearRect(0, 0, width, height);
+                    painter.drawFace(surface, width / 2, height / 2);
+                    painter.drawHands(surface, width / 2, height / 2,
+                            kinematics.getCurrentHourRotation(), kinematics.getCurrentMinRotation());
+                    sink.write(i, frame);
+                }
+            } catch (IOException e) {
+                throw new ExportException(e);
+            } finally {
+                graphics.dispose();
+            }
+        }
+    }
+
+    private static final class ExportException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        ExportException(IOException cause) {
+            super(cause);
+        }
+
+        @Override public synchronized IOException getCause() {
+            return (IOException) super.getCause();
+        }
+    }
+
+    /**
+     * {@code from to frameCount outputDir [columns rows]}, times as {@code yyyy-MM-ddTHH:mm}.
+     * Writes an image sequence, or sprite sheets when columns and rows are given.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 4 && args.length != 6) {
+            System.err.println("usage: ClockFrameExporter from to frameCount outputDir [columns rows]");
+            System.exit(1);
+        }
+        long fromMinute = parseMinute(args[0]);
+        long toMinute = parseMinute(args[1]);
+        int frameCount = Integer.parseInt(args[2]);
+        File outputDir = new File(args[3]);
+
+        FrameSink sink = args.length == 6
+                ? new SpriteSheetSink(outputDir, "sheet", Integer.parseInt(args[4]), Integer.parseInt(args[5]), frameCount)
+                : new ImageSequenceSink(outputDir, "frame");
+
+        // the 100dp clock of the demo at xxhdpi
+        new ClockFrameExporter(300, 300, 6f).export(fromMinute, toMinute, frameCount, sink);
+    }
+
+    private static long parseMinute(String time) {
+        String[] dateTime = time.split("T");
+        String[] date = dateTime[0].split("-");
+        String[] clock = dateTime[1].split(":");
+        return ClockKinematics.epochMinute(Integer.parseInt(date[0]), Integer.parseInt(date[1]),
+                Integer.parseInt(date[2]), Integer.parseInt(clock[0]) * 60 + Integer.parseInt(clock[1]));
+    }
+}
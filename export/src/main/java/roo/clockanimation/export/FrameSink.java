@@ -0,0 +1,18 @@
+package roo.clockanimation.export;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+/**
+ * Receives rendered frames as they are done. Frames arrive out of order and from several threads,
+ * and the image is reused for the next frame as soon as {@link #write} returns.
+ */
+public interface FrameSink {
+
+    void write(int index, BufferedImage frame) throws IOException;
+
+    /**
+     * Called once after the last frame was written.
+     */
+    void close() throws IOException;
+}
@@ -0,0 +1,31 @@
+package roo.clockanimation.export;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Writes every frame to its own numbered PNG file.
+ */
+public class ImageSequenceSink implements FrameSink {
+
+    private final File directory;
+    private final String prefix;
+
+    public ImageSequenceSink(File directory, String prefix) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        this.directory = directory;
+        this.prefix = prefix;
+    }
+
+    @Override public void write(int index, BufferedImage frame) throws IOException {
+        ImageIO.write(frame, "png", new File(directory, String.format("%s%05d.png", prefix, index)));
+    }
+
+    @Override public void close() {
+    }
+}
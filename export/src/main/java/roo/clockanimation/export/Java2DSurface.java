@@ -0,0 +1,67 @@
+package roo.clockanimation.export;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
+
+import roo.clockanimation.ClockSurface;
+
+/**
+ * Headless raster backend: draws the clock with Java2D into a {@code BufferedImage}, anti-aliased
+ * like the drawable's paints.
+ */
+public class Java2DSurface implements ClockSurface {
+
+    private final Color rimColor;
+    private final Color faceColor;
+    private final BasicStroke stroke;
+    private final BasicStroke handStroke;
+
+    private final Ellipse2D.Float circle = new Ellipse2D.Float();
+    private final Line2D.Float line = new Line2D.Float();
+
+    private Graphics2D graphics;
+
+    public Java2DSurface(int rimColor, int faceColor, float strokeWidth) {
+        this.rimColor = new Color(rimColor, true);
+        this.faceColor = new Color(faceColor, true);
+        this.stroke = new BasicStroke(strokeWidth, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
+        this.handStroke = new BasicStroke(strokeWidth, BasicStroke.CAP_SQUARE, BasicStroke.JOIN_MITER);
+    }
+
+    public void setGraphics(Graphics2D graphics) {
+        this.graphics = graphics;
+        graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        graphics.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+        graphics.setStroke(stroke);
+    }
+
+    @Override public void strokeCircle(float centerX, float centerY, float radius) {
+        circle.setFrame(centerX - radius, centerY - radius, 2 * radius, 2 * radius);
+        graphics.setColor(rimColor);
+        graphics.draw(circle);
+    }
+
+    @Override public void fillCircle(float centerX, float centerY, float radius) {
+        circle.setFrame(centerX - radius, centerY - radius, 2 * radius, 2 * radius);
+        graphics.setColor(faceColor);
+        graphics.fill(circle);
+    }
+
+    @Override public void strokeHand(float startX, float startY, float stopX, float stopY) {
+        line.setLine(startX, startY, stopX, stopY);
+        graphics.setColor(rimColor);
+        graphics.setStroke(handStroke);
+        graphics.draw(line);
+        graphics.setStroke(stroke);
+    }
+
+    @Override public void strokeLine(float startX, float startY, float stopX, float stopY) {
+        line.setLine(startX, startY, stopX, stopY);
+        graphics.setColor(rimColor);
+        graphics.draw(line);
+    }
+}
@@ -0,0 +1,87 @@
+package roo.clockanimation.export;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Packs frames into sprite sheets of {@code columns} x {@code rows} cells, row by row. Each sheet
+ * is written and dropped as soon as all its cells are filled, so only the sheets currently being
+ * rendered into are held in memory.
+ */
+public class SpriteSheetSink implements FrameSink {
+
+    private final File directory;
+    private final String prefix;
+    private final int columns;
+    private final int rows;
+    private final int frameCount;
+
+    private final Map<Integer, Sheet> sheets = new HashMap<>();
+
+    public SpriteSheetSink(File directory, String prefix, int columns, int rows, int frameCount) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        this.directory = directory;
+        this.prefix = prefix;
+        this.columns = columns;
+        this.rows = rows;
+        this.frameCount = frameCount;
+    }
+
+    @Override public void write(int index, BufferedImage frame) throws IOException {
+        int cells = columns * rows;
+        int sheetIndex = index / cells;
+        int cell = index % cells;
+
+        Sheet sheet;
+        synchronized (sheets) {
+            sheet = sheets.get(sheetIndex);
+            if (sheet == null) {
+                int sheetFrames = Math.min(cells, frameCount - sheetIndex * cells);
+                sheet = new Sheet(new BufferedImage(columns * frame.getWidth(), rows * frame.getHeight(),
+                        BufferedImage.TYPE_INT_ARGB), sheetFrames);
+                sheets.put(sheetIndex, sheet);
+            }
+        }
+
+        boolean complete;
+        synchronized (sheet) {
+            Graphics2D graphics = sheet.image.createGraphics();
+            graphics.drawImage(frame, (cell % columns) * frame.getWidth(), (cell / columns) * frame.getHeight(), null);
+            graphics.dispose();
+            complete = --sheet.missingFrames == 0;
+        }
+
+        if (complete) {
+            synchronized (sheets) {
+                sheets.remove(sheetIndex);
+            }
+            ImageIO.write(sheet.image, "png", new File(directory, String.format("%s%03d.png", prefix, sheetIndex)));
+        }
+    }
+
+    @Override public void close() throws IOException {
+        synchronized (sheets) {
+            if (!sheets.isEmpty()) {
+                throw new IOException(sheets.size() + " sprite sheets were not completed");
+            }
+        }
+    }
+
+    private static final class Sheet {
+        final BufferedImage image;
+        int missingFrames;
+
+        Sheet(BufferedImage image, int missingFrames) {
+            this.image = image;
+            this.missingFrames = missingFrames;
+        }
+    }
+}